@@ -20,7 +20,7 @@ public class CorsConfig {
                 "https://finance-tracker-six-tan.vercel.app"
         ));
         cfg.setAllowedMethods(List.of("GET","POST","PUT","DELETE","PATCH","OPTIONS"));
-        cfg.setAllowedHeaders(List.of("Authorization","Content-Type"));
+        cfg.setAllowedHeaders(List.of("Authorization","Content-Type","Last-Event-ID"));
         cfg.setAllowCredentials(true);
 
         var source = new UrlBasedCorsConfigurationSource();
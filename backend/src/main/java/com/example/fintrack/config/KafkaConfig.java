@@ -1,5 +1,7 @@
 package com.example.fintrack.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
@@ -10,10 +12,12 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -23,23 +27,49 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    /**
+     * Idempotent, acks=all producer (per-partition order survives retries with up to 5 requests in
+     * flight), batching outbox sends with linger + compression. Client metrics go to Micrometer
+     * as {@code kafka.producer.*}.
+     */
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
+    public ProducerFactory<String, Object> producerFactory(
+            MeterRegistry meters,
+            @Value("${app.kafka.producer.compression:lz4}") String compression,
+            @Value("${app.kafka.producer.linger-ms:20}") int lingerMs,
+            @Value("${app.kafka.producer.batch-size:65536}") int batchSize,
+            @Value("${app.kafka.producer.max-block-ms:10000}") int maxBlockMs,
+            @Value("${app.kafka.producer.delivery-timeout-ms:30000}") int deliveryTimeoutMs) {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaProducerFactory<>(props);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        // must cover linger + request timeout; the relay waits at most app.events.outbox.send-timeout-ms
+        props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, Math.max(deliveryTimeoutMs, lingerMs + 30000));
+        props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 30000);
+        DefaultKafkaProducerFactory<String, Object> pf = new DefaultKafkaProducerFactory<>(props);
+        pf.addListener(new MicrometerProducerListener<>(meters, List.of(Tag.of("client", "fintrack-events"))));
+        return pf;
     }
 
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
     }
 
+    /** Keyed by user id, so each user's events stay ordered within one partition. */
     @Bean
-    public NewTopic fintrackEventsTopic(@Value("${app.kafka.events-topic:fintrack.events}") String topic) {
-        return TopicBuilder.name(topic).partitions(1).replicas(1).build();
+    public NewTopic fintrackEventsTopic(@Value("${app.kafka.events-topic:fintrack.events}") String topic,
+                                        @Value("${app.kafka.events-partitions:12}") int partitions,
+                                        @Value("${app.kafka.events-replicas:1}") int replicas) {
+        return TopicBuilder.name(topic).partitions(partitions).replicas(replicas).build();
     }
 }
@@ -26,21 +26,4 @@ public class QuartzConfig {
                 .withSchedule(cron)
                 .build();
     }
-    @Bean
-    public JobDetail billReminderJobDetail() {
-        return JobBuilder.newJob(com.example.fintrack.jobs.BillReminderJob.class)
-                .withIdentity("billReminderJob")
-                .storeDurably()
-                .build();
-    }
-    @Bean
-    public Trigger billReminderTrigger() {
-        // 9:00 AM every day
-        CronScheduleBuilder cron = CronScheduleBuilder.cronSchedule("0 0 9 * * ?");
-        return TriggerBuilder.newTrigger()
-                .forJob(billReminderJobDetail())
-                .withIdentity("billReminderTrigger")
-                .withSchedule(cron)
-                .build();
-    }
 }
@@ -1,18 +1,63 @@
 package com.example.fintrack.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
 @Configuration
 public class RestClientConfig {
+    @Bean(destroyMethod = "close")
+    CloseableHttpClient mlHttpClient(@Value("${app.ml.connect-timeout-ms:1000}") long connectMs,
+                                     @Value("${app.ml.read-timeout-ms:3000}") long readMs,
+                                     @Value("${app.ml.max-connections:20}") int maxConnections) {
+        var pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections) // single upstream host
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readMs))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(pool)
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .disableAutomaticRetries() // MlGateway decides what a failure means
+                .build();
+    }
+
     @Bean
-    RestClient mlClient(RestClient.Builder builder, @Value("${app.ml.baseUrl}") String baseUrl) {
+    RestClient mlClient(RestClient.Builder builder, CloseableHttpClient mlHttpClient,
+                        @Value("${app.ml.baseUrl}") String baseUrl,
+                        @Value("${app.ml.read-timeout-ms:3000}") long readMs,
+                        @Value("${app.ml.anomaly-timeout-ms:800}") long anomalyMs,
+                        @Value("${app.ml.pool-wait-ms:200}") long poolWaitMs) {
+        var factory = new HttpComponentsClientHttpRequestFactory(mlHttpClient);
+        // per-call deadlines: anomaly scoring sits on the transaction write path, forecasts don't
+        factory.setHttpContextFactory((method, uri) -> {
+            long deadline = uri.getPath().startsWith("/anomaly") ? anomalyMs : readMs;
+            var ctx = HttpClientContext.create();
+            ctx.setRequestConfig(RequestConfig.custom()
+                    .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolWaitMs))
+                    .setResponseTimeout(Timeout.ofMilliseconds(deadline))
+                    .build());
+            return ctx;
+        });
         return builder
                 .baseUrl(baseUrl)
+                .requestFactory(factory)
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE) // ensure JSON
                 .build();
     }
@@ -1,50 +1,97 @@
 package com.example.fintrack.controller;
 
+import com.example.fintrack.dto.AlertDtos.AlertPage;
+import com.example.fintrack.dto.AlertDtos.AlertView;
+import com.example.fintrack.dto.AlertDtos.MarkReadRequest;
 import com.example.fintrack.model.Alert;
+import com.example.fintrack.model.User;
 import com.example.fintrack.repository.AlertRepository;
 import com.example.fintrack.repository.UserRepository;
+import com.example.fintrack.security.StreamTickets;
+import com.example.fintrack.service.AlertStreamService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.Comparator;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/alerts")
 public class AlertController {
+    // "before everything": first page of the keyset feed
+    private static final LocalDateTime HEAD_TS = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final int MAX_PAGE = 200;
+
     private final AlertRepository repo;
     private final UserRepository users;
-    public AlertController(AlertRepository repo, UserRepository users) { this.repo = repo; this.users = users; }
-
-    record AlertView(Long id, String type, String severity, String title, String message,
-                     Long txId, String createdAt, boolean read) {
-        static AlertView of(Alert a) {
-            return new AlertView(a.getId(), a.getType(), a.getSeverity().name(), a.getTitle(),
-                    a.getMessage(), a.getTxId(), a.getCreatedAt().toString(), a.isReadFlag());
-        }
+    private final AlertStreamService stream;
+    private final StreamTickets tickets;
+    public AlertController(AlertRepository repo, UserRepository users, AlertStreamService stream, StreamTickets tickets) {
+        this.repo = repo; this.users = users; this.stream = stream; this.tickets = tickets;
     }
 
     @GetMapping
     public List<AlertView> list(@RequestParam(defaultValue = "false") boolean unreadOnly, Authentication auth) {
         var u = users.findByEmail(auth.getName()).orElseThrow();
-        var all = repo.findTop50ByUserOrderByCreatedAtDesc(u);
-        var filtered = unreadOnly ? all.stream().filter(a -> !a.isReadFlag()).toList() : all;
-        return filtered.stream().sorted(Comparator.comparing(Alert::getCreatedAt).reversed())
-                .map(AlertView::of).toList();
+        return page(u, unreadOnly, null, 50).items();
+    }
+
+    /** Cursor-paginated feed, newest first. Pass the previous page's {@code nextCursor} to continue. */
+    @GetMapping("/feed")
+    public AlertPage feed(@RequestParam(defaultValue = "false") boolean unreadOnly,
+                          @RequestParam(required = false) String cursor,
+                          @RequestParam(defaultValue = "50") int limit,
+                          Authentication auth) {
+        var u = users.findByEmail(auth.getName()).orElseThrow();
+        return page(u, unreadOnly, cursor, Math.max(1, Math.min(MAX_PAGE, limit)));
+    }
+
+    private AlertPage page(User u, boolean unreadOnly, String cursor, int limit) {
+        Cursor c = cursor == null || cursor.isBlank() ? new Cursor(HEAD_TS, Long.MAX_VALUE) : Cursor.decode(cursor);
+        // fetch one extra row to know whether another page exists
+        List<Alert> rows = unreadOnly
+                ? repo.unreadFeed(u.getId(), c.ts(), c.id(), limit + 1)
+                : repo.feed(u.getId(), c.ts(), c.id(), limit + 1);
+        boolean more = rows.size() > limit;
+        if (more) rows = rows.subList(0, limit);
+        String next = more ? Cursor.of(rows.get(rows.size() - 1)).encode() : null;
+        String head = rows.isEmpty() ? null : Cursor.of(rows.get(0)).encode();
+        return new AlertPage(rows.stream().map(AlertView::of).toList(), next, head);
     }
 
     @PostMapping("/{id}/read")
     public ResponseEntity<?> markRead(@PathVariable Long id, Authentication auth) {
         var u = users.findByEmail(auth.getName()).orElseThrow();
-        var a = repo.findByIdAndUser(id, u).orElse(null);
-        if (a == null) return ResponseEntity.notFound().build();
-        a.setReadFlag(true);
-        repo.save(a);
+        int updated = repo.markRead(id, u);
+        if (updated == 0 && !repo.existsByIdAndUser(id, u)) return ResponseEntity.notFound().build();
+        stream.alertsRead(u, updated);
         return ResponseEntity.noContent().build();
     }
 
+    /** Bulk mark-read: by id list and/or everything up to (and including) a feed cursor. One UPDATE each. */
+    @PostMapping("/read")
+    public Map<String, Integer> markReadBulk(@RequestBody MarkReadRequest req, Authentication auth) {
+        var u = users.findByEmail(auth.getName()).orElseThrow();
+        int updated = 0;
+        if (req.ids() != null && !req.ids().isEmpty()) {
+            updated += repo.markReadByIds(u, req.ids());
+        }
+        if (req.upTo() != null && !req.upTo().isBlank()) {
+            Cursor c = Cursor.decode(req.upTo());
+            updated += repo.markReadUpTo(u.getId(), c.ts(), c.id());
+        }
+        stream.alertsRead(u, updated);
+        return Map.of("updated", updated);
+    }
+
     @GetMapping("/unread-count")
     public Map<String, Long> unreadCount(Authentication auth) {
         if (auth == null || auth.getName() == null) {
@@ -52,8 +99,41 @@ public class AlertController {
             return Map.of("count", 0L);
         }
         var u = users.findByEmail(auth.getName()).orElseThrow();
-        long c = repo.countUnread(u);
-        return Map.of("count", c);
+        return Map.of("count", stream.unreadCount(u));
+    }
+
+    /** Single-use ticket for opening {@code /alerts/stream?ticket=...}; fetch a fresh one per (re)connect. */
+    @PostMapping("/stream-ticket")
+    public Map<String, Object> streamTicket(Authentication auth) {
+        var u = users.findByEmail(auth.getName()).orElseThrow();
+        return Map.of("ticket", tickets.issue(u.getId()), "expiresInMs", tickets.ttlMs());
+    }
+
+    /** SSE: "unread" {count} on connect and on every change, "alert" {AlertView} for new alerts. */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                             Authentication auth) {
+        var u = users.findByEmail(auth.getName()).orElseThrow();
+        return stream.subscribe(u, lastEventId);
     }
 
+    /** Opaque keyset position: base64url("createdAt|id"). */
+    record Cursor(LocalDateTime ts, long id) {
+        static Cursor of(Alert a) { return new Cursor(a.getCreatedAt(), a.getId()); }
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((ts + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String s) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(s), StandardCharsets.UTF_8);
+                int bar = raw.lastIndexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, bar)), Long.parseLong(raw.substring(bar + 1)));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+    }
 }
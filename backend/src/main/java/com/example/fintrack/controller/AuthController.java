@@ -3,19 +3,24 @@ package com.example.fintrack.controller;
 import com.example.fintrack.dto.AuthResponse;
 import com.example.fintrack.dto.LoginRequest;
 import com.example.fintrack.dto.RegisterRequest;
+import com.example.fintrack.events.BillScheduleChangedEvent;
 import com.example.fintrack.model.Role;
 import com.example.fintrack.model.User;
 import com.example.fintrack.repository.UserRepository;
 import com.example.fintrack.security.JwtUtil;
 import jakarta.validation.Valid;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
+import java.time.DateTimeException;
+import java.time.ZoneId;
 import java.util.Map;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
@@ -27,19 +32,28 @@ public class AuthController {
     private final UserRepository userRepo;
     private final PasswordEncoder encoder;
     private final JwtUtil jwt;
+    private final ApplicationEventPublisher events;
 
-    public AuthController(UserRepository userRepo, PasswordEncoder encoder, JwtUtil jwt) {
+    public AuthController(UserRepository userRepo, PasswordEncoder encoder, JwtUtil jwt,
+                          ApplicationEventPublisher events) {
         this.userRepo = userRepo;
         this.encoder = encoder;
         this.jwt = jwt;
+        this.events = events;
     }
 
+    public record TimeZoneRequest(String timeZone) {}
+
     // Small DTO to return user info (used in /register and /me)
     public record UserView(Long id, String email, String role) {}
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest req) {
         String email = req.getEmail().trim().toLowerCase();
+        String zone = normalizeZone(req.getTimeZone());
+        if (req.getTimeZone() != null && !req.getTimeZone().isBlank() && zone == null) {
+            return invalidZone();
+        }
         if (userRepo.existsByEmail(email)) {
             return ResponseEntity.status(CONFLICT).body(Map.of(
                     "code", "EMAIL_TAKEN",
@@ -51,6 +65,7 @@ public class AuthController {
         u.setEmail(email);
         u.setPasswordHash(encoder.encode(req.getPassword()));
         if (u.getRole() == null) u.setRole(Role.USER);
+        u.setTimeZone(zone);
         userRepo.save(u);
 
         // Do NOT auto-login. Return 201 + created user; frontend will redirect to /login
@@ -92,4 +107,39 @@ public class AuthController {
         record UserView(Long id, String email, String role) {}
         return ResponseEntity.ok(new UserView(u.getId(), u.getEmail(), u.getRole().name()));
     }
+
+    /** Set the zone bill reminders are timed in; the reminder wheel picks it up right away. */
+    @PutMapping("/me/timezone")
+    public ResponseEntity<?> setTimeZone(Authentication auth, @RequestBody TimeZoneRequest req) {
+        var u = auth == null ? null : userRepo.findByEmail(auth.getName()).orElse(null);
+        if (u == null) {
+            return ResponseEntity.status(401).body(Map.of(
+                    "code", "UNAUTHENTICATED",
+                    "message", "You are not logged in."
+            ));
+        }
+        String zone = normalizeZone(req.timeZone());
+        if (zone == null) return invalidZone();
+        u.setTimeZone(zone);
+        userRepo.save(u);
+        events.publishEvent(new BillScheduleChangedEvent(u.getId()));
+        return ResponseEntity.ok(Map.of("timeZone", zone));
+    }
+
+    /** Canonical IANA id, or null if blank/unknown. */
+    private static String normalizeZone(String id) {
+        if (id == null || id.isBlank()) return null;
+        try {
+            return ZoneId.of(id.trim()).getId();
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static ResponseEntity<?> invalidZone() {
+        return ResponseEntity.status(BAD_REQUEST).body(Map.of(
+                "code", "INVALID_TIMEZONE",
+                "message", "Unknown time zone; use an IANA id such as Asia/Kolkata."
+        ));
+    }
 }
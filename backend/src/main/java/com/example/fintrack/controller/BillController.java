@@ -1,14 +1,21 @@
 package com.example.fintrack.controller;
 
 import com.example.fintrack.model.User;
+import com.example.fintrack.repository.TransactionRepository;
+import com.example.fintrack.service.BillMatcher;
+import com.example.fintrack.service.BillOccurrenceService;
 import com.example.fintrack.service.BillService;
 import com.example.fintrack.repository.UserRepository;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 
@@ -16,10 +23,15 @@ import java.util.Map;
 @RequestMapping("/bills")
 public class BillController {
     private final BillService service;
+    private final BillOccurrenceService occurrences;
+    private final BillMatcher matcher;
+    private final TransactionRepository txRepo;
     private final UserRepository users;
 
-    public BillController(BillService service, UserRepository users) {
-        this.service = service; this.users = users;
+    public BillController(BillService service, BillOccurrenceService occurrences, BillMatcher matcher,
+                          TransactionRepository txRepo, UserRepository users) {
+        this.service = service; this.occurrences = occurrences; this.matcher = matcher;
+        this.txRepo = txRepo; this.users = users;
     }
 
     @GetMapping
@@ -28,24 +40,81 @@ public class BillController {
         return service.list(u);
     }
 
-    record CreateReq(String name, String category, BigDecimal amount, Integer dueDay, Integer leadDays) {}
+    /** frequency: WEEKLY | MONTHLY | YEARLY (default MONTHLY); interval 2 + WEEKLY = biweekly, 3 + MONTHLY = quarterly; dueDay -1 = last day. */
+    record CreateReq(String name, String category, BigDecimal amount, Integer dueDay, Integer leadDays,
+                     String frequency, Integer interval, LocalDate anchorDate) {}
 
     @PostMapping
     public Map<String,Object> create(@RequestBody CreateReq req, Authentication auth) {
         User u = users.findByEmail(auth.getName()).orElseThrow();
-        var b = service.create(u, req.name(), req.category(), req.amount(), req.dueDay(), req.leadDays() == null ? 3 : req.leadDays());
-        return Map.of("id", b.getId());
+        var schedule = new BillService.Schedule(req.frequency(), req.interval(), req.anchorDate());
+        try {
+            var b = service.create(u, req.name(), req.category(), req.amount(), req.dueDay() == null ? 1 : req.dueDay(),
+                    req.leadDays() == null ? 3 : req.leadDays(), schedule);
+            return Map.of("id", b.getId());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
-    record UpdateReq(String name, String category, BigDecimal amount, Integer dueDay, Integer leadDays, Boolean active) {}
+    record UpdateReq(String name, String category, BigDecimal amount, Integer dueDay, Integer leadDays, Boolean active,
+                     String frequency, Integer interval, LocalDate anchorDate) {}
 
     @PutMapping("/{id}")
     public ResponseEntity<?> update(@PathVariable Long id, @RequestBody UpdateReq req, Authentication auth) {
         User u = users.findByEmail(auth.getName()).orElseThrow();
-        service.update(u, id, req.name(), req.category(), req.amount(), req.dueDay(), req.leadDays(), req.active());
+        var schedule = new BillService.Schedule(req.frequency(), req.interval(), req.anchorDate());
+        try {
+            service.update(u, id, req.name(), req.category(), req.amount(), req.dueDay(), req.leadDays(), req.active(), schedule);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
         return ResponseEntity.noContent().build();
     }
 
+    /** Next materialized due dates across all bills, e.g. for a "due soon" widget. */
+    @GetMapping("/upcoming")
+    public List<BillOccurrenceService.Upcoming> upcoming(@RequestParam(defaultValue = "30") int days, Authentication auth) {
+        User u = users.findByEmail(auth.getName()).orElseThrow();
+        var today = LocalDate.now();
+        return occurrences.upcoming(u, today, today.plusDays(Math.min(Math.max(days, 0), 366)));
+    }
+
+    /** Every due date in [from, to] (default: the next 90 days), up to ten years. */
+    @GetMapping("/calendar")
+    public List<BillOccurrenceService.CalendarEntry> calendar(@RequestParam(required = false) LocalDate from,
+                                                              @RequestParam(required = false) LocalDate to,
+                                                              Authentication auth) {
+        User u = users.findByEmail(auth.getName()).orElseThrow();
+        LocalDate start = from == null ? LocalDate.now() : from;
+        LocalDate end = to == null ? start.plusDays(90) : to;
+        if (end.isBefore(start) || ChronoUnit.DAYS.between(start, end) > 3660) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "to must be within ten years after from");
+        }
+        return occurrences.calendar(u, start, end);
+    }
+
+    /** Match past transactions in [from, to] against bill due dates in one pass (e.g. after adding a bill). */
+    @PostMapping("/reconcile")
+    public Map<String,Object> reconcile(@RequestParam LocalDate from, @RequestParam LocalDate to, Authentication auth) {
+        User u = users.findByEmail(auth.getName()).orElseThrow();
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) > 3660) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "to must be within ten years after from");
+        }
+        int matched = matcher.reconcile(u.getId(), txRepo.findByUserAndDateBetween(u, from, to));
+        return Map.of("matched", matched);
+    }
+
+    /** Bill totals per month for {@code months} months from {@code from} (yyyy-MM, default this month). */
+    @GetMapping("/cashflow")
+    public List<BillOccurrenceService.CashflowMonth> cashflow(@RequestParam(required = false) String from,
+                                                              @RequestParam(defaultValue = "12") int months,
+                                                              Authentication auth) {
+        User u = users.findByEmail(auth.getName()).orElseThrow();
+        if (months < 1 || months > 120) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "months must be 1..120");
+        return occurrences.cashflow(u, from == null ? YearMonth.now() : YearMonth.parse(from), months);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> delete(@PathVariable Long id, Authentication auth) {
         User u = users.findByEmail(auth.getName()).orElseThrow();
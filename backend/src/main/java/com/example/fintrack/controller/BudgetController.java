@@ -1,22 +1,28 @@
 package com.example.fintrack.controller;
 
 import com.example.fintrack.dto.BudgetDtos;
+import com.example.fintrack.events.BudgetsChangedEvent;
 import com.example.fintrack.model.Budget;
+import com.example.fintrack.model.BudgetSpend;
 import com.example.fintrack.model.Category;
-import com.example.fintrack.model.Transaction;
 import com.example.fintrack.model.User;
 import com.example.fintrack.repository.BudgetRepository;
 import com.example.fintrack.repository.TransactionRepository;
 import com.example.fintrack.repository.UserRepository;
+import com.example.fintrack.service.BudgetSpendService;
 import com.example.fintrack.service.EventPublisher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/budgets")
@@ -27,6 +33,12 @@ public class BudgetController {
     private final TransactionRepository txRepo;
     @Autowired
     private EventPublisher eventPublisher;
+    @Autowired
+    private ApplicationEventPublisher appEvents;
+    @Autowired
+    private BudgetSpendService budgetSpend;
+    @Autowired
+    private TransactionTemplate txTemplate;
 
     public BudgetController(BudgetRepository budgetRepo, UserRepository userRepo, TransactionRepository txRepo) {
         this.budgetRepo = budgetRepo;
@@ -50,21 +62,21 @@ public class BudgetController {
                                             org.springframework.security.core.Authentication auth) {
         User u = userRepo.findByEmail(auth.getName()).orElseThrow();
 
-        List<Budget> result = new ArrayList<>();
+        // one row per category (last item wins), written by a single INSERT ... ON CONFLICT
+        Map<Category, BigDecimal> limits = new LinkedHashMap<>();
         for (var item : payload.items()) {
-            Category cat = Category.valueOf(item.category());
-            var existing = budgetRepo.findByUserAndYearAndMonthAndCategory(u, year, month, cat);
-            Budget b = existing.orElseGet(() -> new Budget(u, cat, year, month, BigDecimal.ZERO));
-            b.setLimitAmount(item.limit() == null ? BigDecimal.ZERO : item.limit());
-            result.add(budgetRepo.save(b));
+            limits.put(Category.valueOf(item.category()), item.limit() == null ? BigDecimal.ZERO : item.limit());
+        }
+        var out = txTemplate.execute(s -> {
+            var rows = budgetRepo.upsertMonth(u.getId(), YearMonth.of(year, month), limits);
             eventPublisher.publish("budget.upserted", u, Map.of(
                     "year", year, "month", month,
-                    "count", result.size()
+                    "count", rows.size()
             ));
-        }
-        var out = result.stream()
-                .map(b -> new BudgetDtos.BudgetView(b.getId(), b.getCategory().name(), b.getYear(), b.getMonth(), b.getLimitAmount()))
-                .toList();
+            budgetSpend.limitsChanged(u.getId(), Set.of(YearMonth.of(year, month)));
+            return rows;
+        });
+        appEvents.publishEvent(new BudgetsChangedEvent(u.getId(), Set.of(YearMonth.of(year, month))));
         return ResponseEntity.ok(out);
     }
 
@@ -72,70 +84,144 @@ public class BudgetController {
     public ResponseEntity<?> overview(@RequestParam int year, @RequestParam int month,
                                       org.springframework.security.core.Authentication auth) {
         User u = userRepo.findByEmail(auth.getName()).orElseThrow();
-        LocalDate start = LocalDate.of(year, month, 1);
-        LocalDate end = start.plusMonths(1).minusDays(1);
-
-        List<Transaction> txs = txRepo.findByUserAndDateBetween(u, start, end);
-        BigDecimal income = txs.stream().filter(t -> t.getCategory() == Category.INCOME)
-                .map(Transaction::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal expense = txs.stream().filter(t -> t.getCategory() != Category.INCOME)
-                .map(Transaction::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        Map<String, BigDecimal> byCategory = new LinkedHashMap<>();
-        for (Category c : Category.values()) {
-            if (c == Category.INCOME) continue;
-            BigDecimal sum = txs.stream().filter(t -> t.getCategory() == c)
-                    .map(Transaction::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-            byCategory.put(c.name(), sum);
-        }
+        YearMonth ym = YearMonth.of(year, month);
+        // maintained counters instead of a scan of the month's transactions
+        Grid grid = new Grid(ym, 1);
+        for (BudgetSpend s : budgetSpend.range(u.getId(), ym, ym)) grid.spent(s);
+        for (Budget b : budgetRepo.findByUserAndYearAndMonth(u, year, month)) grid.limit(b);
+        return ResponseEntity.ok(grid.month(0, new LinkedHashMap<>()));
+    }
 
-        var budgets = budgetRepo.findByUserAndYearAndMonth(u, year, month);
-        Map<String, BigDecimal> limits = budgets.stream().collect(Collectors.toMap(
-                b -> b.getCategory().name(), Budget::getLimitAmount, (a, b) -> b, LinkedHashMap::new));
-
-        List<Map<String, Object>> rows = new ArrayList<>();
-        for (var e : byCategory.entrySet()) {
-            BigDecimal spent = e.getValue();
-            BigDecimal limit = limits.getOrDefault(e.getKey(), BigDecimal.ZERO);
-            BigDecimal remaining = limit.subtract(spent);
-            double pct = limit.compareTo(BigDecimal.ZERO) == 0 ? 0.0 :
-                    spent.divide(limit, 4, java.math.RoundingMode.HALF_UP).doubleValue();
-            rows.add(Map.of("category", e.getKey(), "limit", limit, "spent", spent, "remaining", remaining, "pct", pct));
+    /**
+     * The overview for every month from..to (YYYY-MM, inclusive, at most 120 months) from one
+     * counters query and one budgets query, e.g. a year view in one request.
+     */
+    @GetMapping("/overview/range")
+    public ResponseEntity<?> overviewRange(@RequestParam String from, @RequestParam String to,
+                                           org.springframework.security.core.Authentication auth) {
+        User u = userRepo.findByEmail(auth.getName()).orElseThrow();
+        YearMonth first, last;
+        try {
+            first = YearMonth.parse(from);
+            last = YearMonth.parse(to);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "code", "INVALID_RANGE",
+                    "message", "from and to must be YYYY-MM."
+            ));
+        }
+        if (last.isBefore(first) || first.until(last, ChronoUnit.MONTHS) >= 120) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "code", "INVALID_RANGE",
+                    "message", "to must be within 120 months after from."
+            ));
         }
 
-        Map<String, Object> out = new LinkedHashMap<>();
-        out.put("totals", Map.of(
-                "income", income,
-                "expense", expense,
-                "savings", income.subtract(expense),
-                "budgeted", budgets.stream().map(Budget::getLimitAmount).reduce(BigDecimal.ZERO, BigDecimal::add)
-        ));
-        out.put("byCategory", rows);
+        int months = (int) first.until(last, ChronoUnit.MONTHS) + 1;
+        Grid grid = new Grid(first, months);
+        for (BudgetSpend s : budgetSpend.range(u.getId(), first, last)) grid.spent(s);
+        for (Budget b : budgetRepo.findRange(u.getId(), first.getYear() * 12 + first.getMonthValue(),
+                last.getYear() * 12 + last.getMonthValue())) grid.limit(b);
+
+        List<Map<String, Object>> out = new ArrayList<>(months);
+        for (int m = 0; m < months; m++) {
+            YearMonth ym = first.plusMonths(m);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("year", ym.getYear());
+            row.put("month", ym.getMonthValue());
+            out.add(grid.month(m, row));
+        }
         return ResponseEntity.ok(out);
     }
+
+    /** Spent and limit in cents, flat [month * categories + category], for the overview responses. */
+    private static final class Grid {
+        private static final Category[] CATEGORIES = Category.values();
+        private final int firstIndex;
+        private final long[] spent, limit;
+
+        Grid(YearMonth first, int months) {
+            this.firstIndex = first.getYear() * 12 + first.getMonthValue() - 1;
+            this.spent = new long[months * CATEGORIES.length];
+            this.limit = new long[months * CATEGORIES.length];
+        }
+
+        void spent(BudgetSpend s) {
+            spent[slot(s.getYear(), s.getMonth(), Category.valueOf(s.getCategory()))] += cents(s.getSpent());
+        }
+
+        void limit(Budget b) {
+            limit[slot(b.getYear(), b.getMonth(), b.getCategory())] = cents(b.getLimitAmount());
+        }
+
+        private int slot(int year, int month, Category c) {
+            return (year * 12 + month - 1 - firstIndex) * CATEGORIES.length + c.ordinal();
+        }
+
+        /** Month {@code m} in the single-month overview shape, added to {@code out}. */
+        Map<String, Object> month(int m, Map<String, Object> out) {
+            int base = m * CATEGORIES.length;
+            long income = 0, expense = 0, budgeted = 0;
+            List<Map<String, Object>> rows = new ArrayList<>(CATEGORIES.length - 1);
+            for (Category c : CATEGORIES) {
+                int i = base + c.ordinal();
+                budgeted += limit[i];
+                if (c == Category.INCOME) { income += spent[i]; continue; }
+                expense += spent[i];
+                double pct = limit[i] == 0 ? 0.0 : Math.round(spent[i] * 10000.0 / limit[i]) / 10000.0;
+                rows.add(Map.of("category", c.name(), "limit", money(limit[i]), "spent", money(spent[i]),
+                        "remaining", money(limit[i] - spent[i]), "pct", pct));
+            }
+            out.put("totals", Map.of(
+                    "income", money(income),
+                    "expense", money(expense),
+                    "savings", money(income - expense),
+                    "budgeted", money(budgeted)
+            ));
+            out.put("byCategory", rows);
+            return out;
+        }
+
+        private static long cents(BigDecimal amount) {
+            return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+
+        private static BigDecimal money(long cents) {
+            return BigDecimal.valueOf(cents, 2);
+        }
+    }
+    /**
+     * Copy a month's budgets onto toYear/toMonth, or onto every month up to untilYear/untilMonth
+     * (e.g. "this month to the rest of the year"); one INSERT ... SELECT server-side.
+     */
     @PostMapping("/copy")
     public ResponseEntity<?> copyBudgets(
             @RequestParam("fromYear") int fromYear,
             @RequestParam("fromMonth") int fromMonth,
             @RequestParam("toYear") int toYear,
             @RequestParam("toMonth") int toMonth,
+            @RequestParam(value = "untilYear", required = false) Integer untilYear,
+            @RequestParam(value = "untilMonth", required = false) Integer untilMonth,
             org.springframework.security.core.Authentication auth) {
 
         var u = userRepo.findByEmail(auth.getName()).orElseThrow();
-
-        var source = budgetRepo.findByUserAndYearAndMonth(u, fromYear, fromMonth);
-        if (source.isEmpty()) {
-            return ResponseEntity.ok(List.of()); // nothing to copy
+        YearMonth source = YearMonth.of(fromYear, fromMonth);
+        YearMonth first = YearMonth.of(toYear, toMonth);
+        YearMonth last = untilYear == null || untilMonth == null ? first : YearMonth.of(untilYear, untilMonth);
+        if (last.isBefore(first) || first.until(last, java.time.temporal.ChronoUnit.MONTHS) >= 120) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "code", "INVALID_RANGE",
+                    "message", "until must be within 120 months after to."
+            ));
         }
 
-        var out = new java.util.ArrayList<BudgetDtos.BudgetView>();
-        for (var s : source) {
-            var existing = budgetRepo.findByUserAndYearAndMonthAndCategory(u, toYear, toMonth, s.getCategory());
-            var b = existing.orElseGet(() -> new com.example.fintrack.model.Budget(u, s.getCategory(), toYear, toMonth, java.math.BigDecimal.ZERO));
-            b.setLimitAmount(s.getLimitAmount());
-            var saved = budgetRepo.save(b);
-            out.add(new BudgetDtos.BudgetView(saved.getId(), saved.getCategory().name(), saved.getYear(), saved.getMonth(), saved.getLimitAmount()));
-        }
+        var out = budgetRepo.copyMonth(u.getId(), source, first, last);
+        if (out.isEmpty()) return ResponseEntity.ok(List.of()); // nothing to copy
+
+        Set<YearMonth> months = new HashSet<>();
+        for (YearMonth ym = first; !ym.isAfter(last); ym = ym.plusMonths(1)) months.add(ym);
+        budgetSpend.limitsChanged(u.getId(), months);
+        appEvents.publishEvent(new BudgetsChangedEvent(u.getId(), months));
         return ResponseEntity.ok(out);
     }
 }
@@ -3,9 +3,12 @@ package com.example.fintrack.controller;
 import com.example.fintrack.model.Goal;
 import com.example.fintrack.repository.UserRepository;
 import com.example.fintrack.service.GoalService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -18,9 +21,11 @@ public class GoalController {
 
     private final GoalService goals;
     private final UserRepository users;
+    private final int maxPaths;
 
-    public GoalController(GoalService goals, UserRepository users) {
-        this.goals = goals; this.users = users;
+    public GoalController(GoalService goals, UserRepository users,
+                          @Value("${app.goals.simulate.max-paths:200000}") int maxPaths) {
+        this.goals = goals; this.users = users; this.maxPaths = maxPaths;
     }
 
     @GetMapping
@@ -37,6 +42,19 @@ public class GoalController {
         return goals.plan(u, avail);
     }
 
+    /** Monte Carlo odds of hitting each active goal by its target date; {@code seed} makes a run repeatable. */
+    @GetMapping("/simulate")
+    public GoalService.Simulation simulate(@RequestParam(required = false) BigDecimal monthly,
+                                           @RequestParam(defaultValue = "10000") int paths,
+                                           @RequestParam(required = false) Long seed,
+                                           Authentication auth) {
+        var u = users.findByEmail(auth.getName()).orElseThrow();
+        if (paths < 1 || paths > maxPaths) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "paths must be 1.." + maxPaths);
+        }
+        return goals.simulate(u, monthly, paths, seed != null ? seed : System.nanoTime());
+    }
+
     record CreateReq(String name, BigDecimal targetAmount, LocalDate targetDate) {}
 
     @PostMapping
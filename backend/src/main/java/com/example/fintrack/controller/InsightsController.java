@@ -1,15 +1,12 @@
 package com.example.fintrack.controller;
 
-import com.example.fintrack.dto.SavingsMonth;
-import com.example.fintrack.model.Transaction;
 import com.example.fintrack.model.User;
 import com.example.fintrack.repository.TransactionRepository;
 import com.example.fintrack.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Value;
+import com.example.fintrack.service.ForecastService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestClient;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -21,70 +18,24 @@ public class InsightsController {
 
     private final TransactionRepository txRepo;
     private final UserRepository userRepo;
-    private final RestClient client;
+    private final ForecastService forecasts;
 
-    public InsightsController(TransactionRepository txRepo, UserRepository userRepo, RestClient mlClient) {
+    public InsightsController(TransactionRepository txRepo, UserRepository userRepo, ForecastService forecasts) {
         this.txRepo = txRepo;
         this.userRepo = userRepo;
-        this.client = mlClient;
+        this.forecasts = forecasts;
     }
 
     @GetMapping("/forecast")
     public ResponseEntity<?> forecast(Authentication auth) {
         User u = userRepo.findByEmail(auth.getName()).orElseThrow();
+        var f = forecasts.forecast(u);
 
-        // Collect last 6 full months with any data (skip all-zero months)
-        LocalDate now = LocalDate.now().withDayOfMonth(1);
-        List<SavingsMonth> months = new ArrayList<>();
-        for (int i = 6; i >= 1; i--) {
-            LocalDate start = now.minusMonths(i);
-            LocalDate end = start.plusMonths(1).minusDays(1);
-            List<Transaction> txs = txRepo.findByUserAndDateBetween(u, start, end);
-
-            var incomeBD = txs.stream().filter(t -> t.getCategory().name().equals("INCOME"))
-                    .map(Transaction::getAmount).reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-            var expenseBD = txs.stream().filter(t -> !t.getCategory().name().equals("INCOME"))
-                    .map(Transaction::getAmount).reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-
-            double income = incomeBD.doubleValue();
-            double expense = expenseBD.doubleValue();
-            if (income > 0.0 || expense > 0.0) { // skip empty months
-                months.add(new com.example.fintrack.dto.SavingsMonth(
-                        start.getYear(), start.getMonthValue(), income, expense
-                ));
-            }
-        }
-
-        if (months.isEmpty()) {
-            // No data → quick, friendly response
-            return ResponseEntity.ok(java.util.Map.of(
-                    "next_month_savings", 0,
-                    "history", java.util.List.of(),
-                    "note", "No transactions found in recent months"
-            ));
-        }
-
-        var payload = new com.example.fintrack.dto.ForecastRequest(months);
-
-        try {
-            var resp = client.post()
-                    .uri("/predict/savings")
-                    .body(payload) // typed DTO → clean JSON
-                    .retrieve()
-                    .toEntity(java.util.Map.class);
-            return ResponseEntity.ok(resp.getBody());
-        } catch (org.springframework.web.client.RestClientResponseException ex) {
-            // Fallback: average of provided months
-            var history = months.stream()
-                    .map(m -> m.income() - m.expense())
-                    .toList();
-            double avg = history.stream().mapToDouble(d -> d).average().orElse(0.0);
-            return ResponseEntity.ok(java.util.Map.of(
-                    "next_month_savings", Math.round(avg * 100.0) / 100.0,
-                    "history", history,
-                    "note", "ML fallback due to upstream error: " + ex.getStatusCode().value()
-            ));
-        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("next_month_savings", f.nextMonthSavings());
+        out.put("history", f.history());
+        if (f.note() != null) out.put("note", f.note());
+        return ResponseEntity.ok(out);
     }
     @GetMapping("/trend")
     public ResponseEntity<?> trend(
@@ -4,59 +4,106 @@ package com.example.fintrack.controller;
 import com.example.fintrack.model.User;
 import com.example.fintrack.repository.UserRepository;
 import com.example.fintrack.service.EventPublisher;
+import com.example.fintrack.service.MailOutboxService;
 import com.example.fintrack.service.ReportService;
-import jakarta.mail.internet.MimeMessage;
+import com.example.fintrack.service.ReportSnapshotService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.Month;
+import java.time.YearMonth;
 import java.time.format.TextStyle;
 import java.util.Locale;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/reports")
 public class ReportController {
     private final ReportService reportService;
     private final UserRepository userRepo;
-    private final JavaMailSender mailSender;
+    private final MailOutboxService mail;
+    private final ReportSnapshotService snapshots;
     @Autowired
     private EventPublisher eventPublisher;
 
-    public ReportController(ReportService reportService, UserRepository userRepo, JavaMailSender mailSender) {
+    public ReportController(ReportService reportService, UserRepository userRepo, MailOutboxService mail,
+                            ReportSnapshotService snapshots) {
         this.reportService = reportService;
         this.userRepo = userRepo;
-        this.mailSender = mailSender;
+        this.mail = mail;
+        this.snapshots = snapshots;
     }
 
+    private static final MediaType HTML_UTF8 = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
+
     @GetMapping(value = "/preview", produces = MediaType.TEXT_HTML_VALUE)
-    public ResponseEntity<String> preview(@RequestParam int year,
-                                          @RequestParam int month,
-                                          org.springframework.security.core.Authentication auth) {
+    public ResponseEntity<StreamingResponseBody> preview(@RequestParam int year,
+                                                         @RequestParam int month,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                         @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                         org.springframework.security.core.Authentication auth) {
+        YearMonth ym = YearMonth.of(year, month);
+        if (!ReportSnapshotService.isClosed(ym)) {
+            User u = userRepo.findByEmail(auth.getName()).orElseThrow();
+            var report = reportService.monthly(u, year, month); // queries run here, not on the streaming thread
+            return ResponseEntity.ok()
+                    .contentType(HTML_UTF8)
+                    .body(out -> reportService.writeMonthlyHtml(report, out));
+        }
+
+        // closed month: revalidate from memory first, then from the stored snapshot
+        String known = snapshots.knownEtag(auth.getName(), ym);
+        if (known != null && etagMatches(ifNoneMatch, known)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(known).build();
+        }
         User u = userRepo.findByEmail(auth.getName()).orElseThrow();
-        String html = reportService.renderMonthlyHtml(u, year, month);
-        return ResponseEntity.ok(html);
+        var snap = snapshots.get(u, ym);
+        if (etagMatches(ifNoneMatch, snap.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snap.etag()).build();
+        }
+
+        var ok = ResponseEntity.ok()
+                .contentType(HTML_UTF8)
+                .eTag(snap.etag())
+                .cacheControl(org.springframework.http.CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> out.write(snap.htmlGz()));
+        }
+        return ok.body(out -> {
+            try (var in = new GZIPInputStream(new java.io.ByteArrayInputStream(snap.htmlGz()))) {
+                in.transferTo(out);
+            }
+        });
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals("\"" + etag + "\"")) return true;
+        }
+        return false;
     }
 
     @PostMapping("/send")
     public ResponseEntity<?> send(@RequestParam int year,
                                   @RequestParam int month,
-                                  org.springframework.security.core.Authentication auth) throws Exception {
+                                  org.springframework.security.core.Authentication auth) {
         User u = userRepo.findByEmail(auth.getName()).orElseThrow();
-        String html = reportService.renderMonthlyHtml(u, year, month);
+        byte[] html = reportService.renderMonthlyHtml(u, year, month);
 
         String subject = "Monthly Finance Report " + Month.of(month).getDisplayName(TextStyle.SHORT, Locale.ENGLISH) + year;
-        MimeMessage msg = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(msg, "UTF-8");
-        helper.setTo(u.getEmail());
-        helper.setSubject(subject);
-        helper.setText(html, true);
-        mailSender.send(msg);
+        mail.enqueueHtml(u.getEmail(), subject, html);
         eventPublisher.publish("report.sent", u, Map.of("year", year, "month", month));
 
         return ResponseEntity.ok().build();
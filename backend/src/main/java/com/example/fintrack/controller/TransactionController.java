@@ -1,21 +1,39 @@
 package com.example.fintrack.controller;
 
+import com.example.fintrack.events.TransactionsChangedEvent;
+import com.example.fintrack.model.Category;
 import com.example.fintrack.model.Transaction;
 import com.example.fintrack.model.User;
 import com.example.fintrack.repository.AlertRepository;
 import com.example.fintrack.repository.TransactionRepository;
 import com.example.fintrack.repository.UserRepository;
 import com.example.fintrack.service.AlertService;
+import com.example.fintrack.service.BillMatcher;
+import com.example.fintrack.service.BudgetSpendService;
 import com.example.fintrack.service.EventPublisher;
+import com.example.fintrack.service.ExportService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/transactions")
@@ -30,6 +48,16 @@ public class TransactionController {
     private AlertService alertService;
     @Autowired
     private AlertRepository alertRepo;
+    @Autowired
+    private ApplicationEventPublisher appEvents;
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private BillMatcher billMatcher;
+    @Autowired
+    private BudgetSpendService budgetSpend;
+    @Autowired
+    private TransactionTemplate txTemplate;
 
     public TransactionController(TransactionRepository txRepo,
                                  UserRepository userRepo,
@@ -45,19 +73,65 @@ public class TransactionController {
         return txRepo.findByUser(u);
     }
 
+    /**
+     * Streamed export: {@code format=csv|ndjson}, optional {@code from}/{@code to} (inclusive) and
+     * {@code category}. Gzip-encoded when the client accepts it.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Category category,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication auth) {
+        ExportService.Format fmt;
+        try {
+            fmt = ExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or ndjson");
+        }
+        Long userId = userRepo.findByEmail(auth.getName()).orElseThrow().getId();
+        var filter = new ExportService.Filter(from, to, category);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String filename = "transactions" + (from != null ? "-" + from : "") + (to != null ? "-" + to : "")
+                + (fmt == ExportService.Format.CSV ? ".csv" : ".ndjson");
+
+        var ok = ResponseEntity.ok()
+                .contentType(fmt == ExportService.Format.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+                GZIPOutputStream gz = new GZIPOutputStream(out, 64 * 1024);
+                exportService.export(userId, filter, fmt, gz);
+                gz.finish();
+            });
+        }
+        return ok.body(out -> exportService.export(userId, filter, fmt, out));
+    }
+
     @PostMapping
     public Transaction create(@Valid @RequestBody Transaction t, Authentication auth) {
         User u = userRepo.findByEmail(auth.getName()).orElseThrow();
         t.setUser(u);
-        Transaction saved = txRepo.save(t);
-
-        eventPublisher.publish("transaction.created", u, Map.of(
-                "id", saved.getId(),
-                "category", saved.getCategory().name(),
-                "amount", saved.getAmount(),
-                "date", saved.getDate().toString()
-        ));
+        Transaction saved = txTemplate.execute(s -> {
+            Transaction row = txRepo.save(t);
+            budgetSpend.recordCreated(row);
+            eventPublisher.publish("transaction.created", u, Map.of(
+                    "id", row.getId(),
+                    "category", row.getCategory().name(),
+                    "amount", row.getAmount(),
+                    "date", row.getDate().toString()
+            ));
+            return row;
+        });
+        appEvents.publishEvent(new TransactionsChangedEvent(u.getId(), Set.of(YearMonth.from(saved.getDate()))));
+
         alertService.maybeCreateAnomaly(saved);
+        billMatcher.match(saved);
 
         return saved;
     }
@@ -79,18 +153,20 @@ public class TransactionController {
         var tx = txRepo.findById(id).orElse(null);
         if (tx == null || !tx.getUser().getId().equals(u.getId())) return ResponseEntity.notFound().build();
 
-        txRepo.deleteById(id);
+        txTemplate.executeWithoutResult(s -> {
+            txRepo.deleteById(id);
+            budgetSpend.recordDeleted(tx);
+            eventPublisher.publish("transaction.deleted", u, Map.of("id", id));
+        });
+        billMatcher.unmatch(u.getId(), id);
+        appEvents.publishEvent(new TransactionsChangedEvent(u.getId(), Set.of(YearMonth.from(tx.getDate()))));
         System.out.println("deleting transaction id " + id);
-        alertRepo.deleteByTxIdAndUser(id, u);
+        alertService.transactionDeleted(u, id);
         System.out.println("Deleted alerts for tx id " + id);
 
         // NEW: clean up any related alerts for this user/tx
        // try { alertRepo.deleteByTxIdAndUser(id, u); } catch (Exception ignored) {System.println(ignored);}
 
-
-
-
-        eventPublisher.publish("transaction.deleted", u, Map.of("id", id));
         return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,21 @@
+package com.example.fintrack.dto;
+
+import com.example.fintrack.model.Alert;
+
+import java.util.List;
+
+public class AlertDtos {
+    public record AlertView(Long id, String type, String severity, String title, String message,
+                            Long txId, String createdAt, boolean read, int occurrences) {
+        public static AlertView of(Alert a) {
+            return new AlertView(a.getId(), a.getType(), a.getSeverity().name(), a.getTitle(),
+                    a.getMessage(), a.getTxId(), a.getCreatedAt().toString(), a.isReadFlag(),
+                    a.getOccurrences());
+        }
+    }
+
+    /** One keyset page; {@code headCursor} points at the first item (for "mark all read up to here"). */
+    public record AlertPage(List<AlertView> items, String nextCursor, String headCursor) {}
+
+    public record MarkReadRequest(List<Long> ids, String upTo) {}
+}
@@ -9,9 +9,13 @@ public class RegisterRequest {
     private String email;
     @NotBlank @Size(min = 6, max = 100)
     private String password;
+    @Size(max = 64)
+    private String timeZone;   // IANA id, e.g. "Asia/Kolkata"; optional
 
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
     public String getPassword() { return password; }
     public void setPassword(String password) { this.password = password; }
+    public String getTimeZone() { return timeZone; }
+    public void setTimeZone(String timeZone) { this.timeZone = timeZone; }
 }
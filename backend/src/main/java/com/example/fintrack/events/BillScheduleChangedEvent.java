@@ -0,0 +1,4 @@
+package com.example.fintrack.events;
+
+/** In-process: a bill of {@code userId} was created, changed or deleted, or their time zone changed. */
+public record BillScheduleChangedEvent(Long userId) { }
@@ -0,0 +1,7 @@
+package com.example.fintrack.events;
+
+import java.time.YearMonth;
+import java.util.Set;
+
+/** In-process: budgets of {@code userId} for {@code months} were created or changed. */
+public record BudgetsChangedEvent(Long userId, Set<YearMonth> months) { }
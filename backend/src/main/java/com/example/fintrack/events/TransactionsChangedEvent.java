@@ -0,0 +1,10 @@
+package com.example.fintrack.events;
+
+import java.time.YearMonth;
+import java.util.Set;
+
+/**
+ * In-process (Spring application event, not Kafka): transactions of {@code userId} were
+ * created or deleted in {@code months}. Caches derived from those months listen for it.
+ */
+public record TransactionsChangedEvent(Long userId, Set<YearMonth> months) { }
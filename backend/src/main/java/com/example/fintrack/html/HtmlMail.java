@@ -0,0 +1,26 @@
+package com.example.fintrack.html;
+
+import java.io.ByteArrayOutputStream;
+import java.util.function.Consumer;
+
+/** Renders an HTML mail body into a per-thread reusable buffer. */
+public final class HtmlMail {
+
+    private static final int MAX_RETAINED = 256 * 1024;
+    private static final ThreadLocal<ByteArrayOutputStream> BUFFER =
+            ThreadLocal.withInitial(() -> new ByteArrayOutputStream(16 * 1024));
+
+    private HtmlMail() {}
+
+    /** Render via {@code template} and return the encoded bytes. */
+    public static byte[] render(Consumer<HtmlWriter> template) {
+        ByteArrayOutputStream bytes = BUFFER.get();
+        bytes.reset();
+        HtmlWriter w = new HtmlWriter(bytes);
+        template.accept(w);
+        w.flush();
+        byte[] body = bytes.toByteArray();
+        if (bytes.size() > MAX_RETAINED) BUFFER.remove(); // don't pin one huge report per worker
+        return body;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.fintrack.html;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal streaming HTML writer: static fragments are pre-encoded once with {@link #fragment},
+ * dynamic values are escaped and UTF-8 encoded straight into a small internal buffer that is
+ * drained to the target stream. No intermediate Strings are built for the document.
+ */
+public final class HtmlWriter {
+
+    private final OutputStream out;
+    private final byte[] buf = new byte[8192];
+    private int pos;
+
+    public HtmlWriter(OutputStream out) { this.out = out; }
+
+    /** Encode a static template piece once, at class-init time. */
+    public static byte[] fragment(String html) { return html.getBytes(StandardCharsets.UTF_8); }
+
+    public HtmlWriter raw(byte[] fragment) {
+        if (fragment.length > buf.length - pos) {
+            drain();
+            if (fragment.length > buf.length) { write(fragment, fragment.length); return this; }
+        }
+        System.arraycopy(fragment, 0, buf, pos, fragment.length);
+        pos += fragment.length;
+        return this;
+    }
+
+    /** Escaped text content / attribute value. */
+    public HtmlWriter text(CharSequence s) {
+        if (s == null) return this;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '&' -> ascii("&amp;");
+                case '<' -> ascii("&lt;");
+                case '>' -> ascii("&gt;");
+                case '"' -> ascii("&quot;");
+                case '\'' -> ascii("&#39;");
+                default -> {
+                    if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                        codePoint(Character.toCodePoint(c, s.charAt(++i)));
+                    } else {
+                        codePoint(c);
+                    }
+                }
+            }
+        }
+        return this;
+    }
+
+    public HtmlWriter num(long v) { return ascii(Long.toString(v)); }
+
+    /** Amount with 2 decimals, half-up, no grouping. */
+    public HtmlWriter money(BigDecimal v) {
+        return ascii(v == null ? "0" : v.setScale(2, RoundingMode.HALF_UP).toPlainString());
+    }
+
+    public void flush() {
+        drain();
+        try { out.flush(); } catch (IOException e) { throw new UncheckedIOException(e); }
+    }
+
+    private HtmlWriter ascii(String s) {
+        for (int i = 0, n = s.length(); i < n; i++) put((byte) s.charAt(i));
+        return this;
+    }
+
+    private void codePoint(int cp) {
+        if (cp < 0x80) {
+            put((byte) cp);
+        } else if (cp < 0x800) {
+            put((byte) (0xC0 | cp >> 6));
+            put((byte) (0x80 | cp & 0x3F));
+        } else if (cp < 0x10000) {
+            if (Character.isSurrogate((char) cp)) { put((byte) '?'); return; } // unpaired surrogate
+            put((byte) (0xE0 | cp >> 12));
+            put((byte) (0x80 | cp >> 6 & 0x3F));
+            put((byte) (0x80 | cp & 0x3F));
+        } else {
+            put((byte) (0xF0 | cp >> 18));
+            put((byte) (0x80 | cp >> 12 & 0x3F));
+            put((byte) (0x80 | cp >> 6 & 0x3F));
+            put((byte) (0x80 | cp & 0x3F));
+        }
+    }
+
+    private void put(byte b) {
+        if (pos == buf.length) drain();
+        buf[pos++] = b;
+    }
+
+    private void drain() {
+        if (pos == 0) return;
+        write(buf, pos);
+        pos = 0;
+    }
+
+    private void write(byte[] b, int len) {
+        try { out.write(b, 0, len); } catch (IOException e) { throw new UncheckedIOException(e); }
+    }
+}
@@ -1,52 +1,30 @@
-
 package com.example.fintrack.job;
 
-import com.example.fintrack.repository.UserRepository;
-import com.example.fintrack.service.ReportService;
-import jakarta.mail.internet.MimeMessage;
+import com.example.fintrack.service.JobShardService;
+import com.example.fintrack.service.ReportBatchService;
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
-import java.time.Month;
-import java.time.format.TextStyle;
-import java.util.Locale;
 
+/** Plans today's run; the shards are then processed by every replica's JobShardService. */
 @Component
+@DisallowConcurrentExecution
 public class MonthlyReportJob implements Job {
 
-    private final UserRepository userRepo;
-    private final ReportService reportService;
-    private final JavaMailSender mailSender;
+    private final JobShardService shards;
+    private final int shardSize;
 
-    public MonthlyReportJob(UserRepository userRepo, ReportService reportService, JavaMailSender mailSender) {
-        this.userRepo = userRepo;
-        this.reportService = reportService;
-        this.mailSender = mailSender;
+    public MonthlyReportJob(JobShardService shards, @Value("${app.reports.shard-size:5000}") int shardSize) {
+        this.shards = shards;
+        this.shardSize = shardSize;
     }
 
     @Override
     public void execute(JobExecutionContext context) {
-        LocalDate now = LocalDate.now();
-        int year = now.getYear();
-        int month = now.getMonthValue();
-        String subject = "Monthly Finance Report — " + Month.of(month).getDisplayName(TextStyle.SHORT, Locale.ENGLISH) + " " + year;
-
-        userRepo.findAll().forEach(user -> {
-            try {
-                String html = reportService.renderMonthlyHtml(user, year, month);
-                MimeMessage msg = mailSender.createMimeMessage();
-                MimeMessageHelper helper = new MimeMessageHelper(msg, "UTF-8");
-                helper.setTo(user.getEmail());
-                helper.setSubject(subject);
-                helper.setText(html, true);
-                mailSender.send(msg);
-            } catch (Exception ex) {
-                System.err.println("Failed to send report to " + user.getEmail() + ": " + ex.getMessage());
-            }
-        });
+        shards.plan(ReportBatchService.JOB_NAME, LocalDate.now().toString(), shardSize);
     }
 }
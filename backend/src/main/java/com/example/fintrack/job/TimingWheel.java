@@ -0,0 +1,80 @@
+package com.example.fintrack.job;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical hashed timing wheel. Level 0 has {@code wheelSize} buckets of {@code tickMs}; each
+ * overflow level's tick is the level below's full span, so O(1) insertion covers any horizon with
+ * few buckets. Entries in a higher level cascade down as their bucket comes due and fire from
+ * level 0 with tick resolution. Not thread-safe; callers synchronize.
+ */
+public final class TimingWheel<T> {
+
+    /** Scheduled item; cancel() is O(1), the dead entry is dropped when its bucket is reached. */
+    public static final class Timer<T> {
+        final long deadline;
+        final T value;
+        boolean cancelled;
+
+        Timer(long deadline, T value) { this.deadline = deadline; this.value = value; }
+
+        public long deadline() { return deadline; }
+        public T value() { return value; }
+        public void cancel() { cancelled = true; }
+        public boolean isCancelled() { return cancelled; }
+    }
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final List<ArrayDeque<Timer<T>>> buckets;
+    private long currentTime; // start of the current tick
+    private TimingWheel<T> overflow;
+
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = tickMs * wheelSize;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) buckets.add(new ArrayDeque<>());
+        this.currentTime = startMs - startMs % tickMs;
+    }
+
+    /** Schedule {@code value} at {@code deadlineMs}; returns null (not scheduled) if already due. */
+    public Timer<T> schedule(long deadlineMs, T value) {
+        Timer<T> t = new Timer<>(deadlineMs, value);
+        return add(t) ? t : null;
+    }
+
+    /** Move the clock to {@code nowMs}; returns the live values whose deadline has passed. */
+    public List<T> advance(long nowMs) {
+        List<T> due = new ArrayList<>();
+        advance(nowMs, this, due);
+        return due;
+    }
+
+    private boolean add(Timer<T> t) {
+        if (t.deadline < currentTime + tickMs) return false; // due within the current tick
+        if (t.deadline < currentTime + interval) {
+            buckets.get((int) ((t.deadline / tickMs) % wheelSize)).add(t);
+            return true;
+        }
+        if (overflow == null) overflow = new TimingWheel<>(interval, wheelSize, currentTime);
+        return overflow.add(t);
+    }
+
+    private void advance(long nowMs, TimingWheel<T> root, List<T> due) {
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+            if (overflow != null) overflow.advance(currentTime, root, due);
+            ArrayDeque<Timer<T>> bucket = buckets.get((int) ((currentTime / tickMs) % wheelSize));
+            for (int n = bucket.size(); n > 0; n--) {
+                Timer<T> t = bucket.poll();
+                if (t.cancelled) continue;
+                if (!root.add(t)) due.add(t.value); // re-insert lower down, or fire
+            }
+        }
+    }
+}
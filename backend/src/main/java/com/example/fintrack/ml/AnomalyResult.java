@@ -0,0 +1,4 @@
+package com.example.fintrack.ml;
+
+/** Same shape as the ML service's {@code /anomaly/expense} response. */
+public record AnomalyResult(boolean anomaly, double score, String method) { }
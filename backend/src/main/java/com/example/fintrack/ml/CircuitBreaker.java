@@ -0,0 +1,73 @@
+package com.example.fintrack.ml;
+
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker. CLOSED lets calls through; after
+ * {@code failureThreshold} failures in a row it goes OPEN and rejects calls for
+ * {@code openMs}; then HALF_OPEN admits a single probe whose outcome closes or re-opens it.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final int failureThreshold;
+    private final long openMs;
+    private final LongSupplier clock;
+    private final BiConsumer<State, State> onTransition;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(int failureThreshold, long openMs, LongSupplier clock,
+                          BiConsumer<State, State> onTransition) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMs = openMs;
+        this.clock = clock;
+        this.onTransition = onTransition;
+    }
+
+    /** True if the call may proceed; every granted call must report onSuccess/onFailure/onIgnored. */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openMs) return false;
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) return false;
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        failures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) transition(State.CLOSED);
+    }
+
+    public synchronized void onFailure() {
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            failures = 0;
+            openedAt = clock.getAsLong();
+            if (state != State.OPEN) transition(State.OPEN);
+        }
+    }
+
+    /** Call finished without telling us anything about upstream health (e.g. a 4xx). */
+    public synchronized void onIgnored() {
+        probeInFlight = false;
+    }
+
+    public synchronized State state() { return state; }
+
+    private void transition(State to) {
+        State from = state;
+        state = to;
+        onTransition.accept(from, to);
+    }
+}
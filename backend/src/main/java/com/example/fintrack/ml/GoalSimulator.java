@@ -0,0 +1,82 @@
+package com.example.fintrack.ml;
+
+import org.springframework.stereotype.Component;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Monte Carlo projection of goal funding. Each path draws monthly savings from N(mean, sd)
+ * (negative months save nothing), splits every month's savings across the goals still open in
+ * proportion to their weights, and records which goals reach their remaining amount by their
+ * deadline. Paths run in chunks on the common fork-join pool, each chunk with its own
+ * {@link SplittableRandom} split off one seed and its own primitive scratch arrays. The chunk
+ * count depends only on {@code paths}, so a seed gives the same result on any machine.
+ */
+@Component
+public class GoalSimulator {
+
+    static final int PATHS_PER_CHUNK = 1024;
+    static final int MAX_CHUNKS = 256;
+
+    /**
+     * @param remaining amount still needed per goal
+     * @param months    months left per goal (savings in months 0..months-1 count)
+     * @param weights   share of monthly savings per goal while it is open
+     * @return probability per goal of being fully funded in time
+     */
+    public double[] simulate(double mean, double sd, double[] remaining, int[] months, double[] weights,
+                             int paths, long seed) {
+        int g = remaining.length;
+        int horizon = 0;
+        for (int m : months) horizon = Math.max(horizon, m);
+        int chunks = Math.max(1, Math.min(MAX_CHUNKS, (paths + PATHS_PER_CHUNK - 1) / PATHS_PER_CHUNK));
+
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] rngs = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) rngs[c] = root.split(); // split up front: same seed, same result
+
+        int[][] hits = new int[chunks][];
+        final int h = horizon;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int from = (int) ((long) paths * c / chunks), to = (int) ((long) paths * (c + 1) / chunks);
+            hits[c] = runChunk(rngs[c], to - from, mean, sd, remaining, months, weights, h);
+        });
+
+        double[] p = new double[g];
+        for (int[] chunk : hits) for (int i = 0; i < g; i++) p[i] += chunk[i];
+        for (int i = 0; i < g; i++) p[i] /= paths;
+        return p;
+    }
+
+    private static int[] runChunk(SplittableRandom rng, int paths, double mean, double sd,
+                                  double[] remaining, int[] months, double[] weights, int horizon) {
+        int g = remaining.length;
+        int[] hits = new int[g];
+        double[] funded = new double[g];
+        boolean[] done = new boolean[g];
+        for (int p = 0; p < paths; p++) {
+            for (int i = 0; i < g; i++) {
+                funded[i] = 0.0;
+                done[i] = remaining[i] <= 0.0;
+                if (done[i]) hits[i]++;
+            }
+            for (int t = 0; t < horizon; t++) {
+                double open = 0.0;
+                for (int i = 0; i < g; i++) if (!done[i] && t < months[i]) open += weights[i];
+                if (open <= 0.0) break;
+                double saved = mean + sd * rng.nextGaussian();
+                if (saved <= 0.0) continue;
+                for (int i = 0; i < g; i++) {
+                    if (done[i] || t >= months[i]) continue;
+                    funded[i] += saved * weights[i] / open;
+                    if (funded[i] >= remaining[i]) {
+                        done[i] = true;
+                        hits[i]++;
+                    }
+                }
+            }
+        }
+        return hits;
+    }
+}
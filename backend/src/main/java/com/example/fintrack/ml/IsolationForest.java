@@ -0,0 +1,119 @@
+package com.example.fintrack.ml;
+
+import java.util.SplittableRandom;
+
+/**
+ * One-dimensional isolation forest over primitive arrays.
+ * Follows scikit-learn's IsolationForest (the one used by ml-service):
+ * 100 trees, min(256, n) samples per tree drawn without replacement,
+ * depth limit ceil(log2(samples)) and a contamination-based offset.
+ */
+public final class IsolationForest {
+
+    private static final double EULER_GAMMA = 0.5772156649015329;
+
+    private final int sampleSize;
+    private final int maxDepth;
+
+    // trees are stored flattened: node i of tree t lives at [t][i]; NaN split => leaf
+    private final double[][] split;
+    private final int[][] left;
+    private final int[][] right;
+    private final int[][] leafSize;
+
+    private double offset;
+
+    private IsolationForest(int trees, int sampleSize) {
+        this.sampleSize = sampleSize;
+        this.maxDepth = (int) Math.ceil(Math.log(Math.max(sampleSize, 2)) / Math.log(2));
+        int maxNodes = 2 * sampleSize;
+        this.split = new double[trees][maxNodes];
+        this.left = new int[trees][maxNodes];
+        this.right = new int[trees][maxNodes];
+        this.leafSize = new int[trees][maxNodes];
+    }
+
+    /** Fit on {@code data}; offset is the {@code contamination} percentile of the training scores. */
+    public static IsolationForest fit(double[] data, int trees, double contamination, long seed) {
+        int n = data.length;
+        if (n == 0) throw new IllegalArgumentException("empty training data");
+        var forest = new IsolationForest(trees, Math.min(256, n));
+        var rnd = new SplittableRandom(seed);
+        double[] buf = new double[n];
+        for (int t = 0; t < trees; t++) {
+            System.arraycopy(data, 0, buf, 0, n);
+            // partial Fisher-Yates: first sampleSize slots become the subsample
+            for (int i = 0; i < forest.sampleSize; i++) {
+                int j = i + rnd.nextInt(n - i);
+                double tmp = buf[i]; buf[i] = buf[j]; buf[j] = tmp;
+            }
+            int[] next = {0};
+            forest.build(t, buf, 0, forest.sampleSize, 0, next, rnd);
+        }
+
+        double[] scores = new double[n];
+        for (int i = 0; i < n; i++) scores[i] = forest.scoreSample(data[i]);
+        java.util.Arrays.sort(scores);
+        forest.offset = percentile(scores, 100.0 * contamination);
+        return forest;
+    }
+
+    private int build(int t, double[] buf, int from, int to, int depth, int[] next, SplittableRandom rnd) {
+        int node = next[0]++;
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            if (buf[i] < min) min = buf[i];
+            if (buf[i] > max) max = buf[i];
+        }
+        if (depth >= maxDepth || to - from <= 1 || min == max) {
+            split[t][node] = Double.NaN;
+            leafSize[t][node] = to - from;
+            return node;
+        }
+        double s = min + rnd.nextDouble() * (max - min);
+        int i = from, j = to - 1;
+        while (i <= j) {
+            if (buf[i] <= s) i++;
+            else { double tmp = buf[i]; buf[i] = buf[j]; buf[j] = tmp; j--; }
+        }
+        split[t][node] = s;
+        left[t][node] = build(t, buf, from, i, depth + 1, next, rnd);
+        right[t][node] = build(t, buf, i, to, depth + 1, next, rnd);
+        return node;
+    }
+
+    /** sklearn's score_samples: -2^(-E[h(x)] / c(psi)); lower => more abnormal. */
+    public double scoreSample(double x) {
+        double total = 0.0;
+        for (int t = 0; t < split.length; t++) {
+            double[] s = split[t];
+            int node = 0, depth = 0;
+            while (!Double.isNaN(s[node])) {
+                node = x <= s[node] ? left[t][node] : right[t][node];
+                depth++;
+            }
+            total += depth + averagePathLength(leafSize[t][node]);
+        }
+        double mean = total / split.length;
+        return -Math.pow(2.0, -mean / averagePathLength(sampleSize));
+    }
+
+    /** sklearn's decision_function: negative => outlier. */
+    public double decisionFunction(double x) {
+        return scoreSample(x) - offset;
+    }
+
+    static double averagePathLength(int n) {
+        if (n <= 1) return 0.0;
+        if (n == 2) return 1.0;
+        return 2.0 * (Math.log(n - 1.0) + EULER_GAMMA) - 2.0 * (n - 1.0) / n;
+    }
+
+    /** numpy.percentile with the default linear interpolation; {@code sorted} must be ascending. */
+    static double percentile(double[] sorted, double q) {
+        double pos = q / 100.0 * (sorted.length - 1);
+        int lo = (int) Math.floor(pos);
+        int hi = Math.min(lo + 1, sorted.length - 1);
+        return sorted[lo] + (sorted[hi] - sorted[lo]) * (pos - lo);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.fintrack.ml;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process port of ml-service's {@code /anomaly/expense}: same thresholds and the
+ * same method cascade (small-sample -> isoforest -> mad-z -> ratio), so alerts don't
+ * need a network hop.
+ *
+ * <p>Fitting the 100-tree forest dominates the cost, so callers that pass a cache key (user,
+ * category and history window) reuse the fitted forest while that history is unchanged. The
+ * history ends the day before the scored transaction, so a user's same-day alerts share one fit.
+ * A forest takes roughly 4 KB per training point (up to 256), hence the small LRU.
+ */
+@Component
+public class LocalAnomalyDetector {
+
+    private static final int TREES = 100;
+    private static final double CONTAMINATION = 0.1;
+    private static final long SEED = 42L;
+
+    private record Fitted(double[] history, IsolationForest forest) {}
+
+    private final int maxForests;
+    private final LinkedHashMap<String, Fitted> forests; // guarded by itself
+
+    public LocalAnomalyDetector() { this(0); }
+
+    @Autowired
+    public LocalAnomalyDetector(@Value("${app.anomaly.forest-cache-entries:100}") int maxForests) {
+        this.maxForests = maxForests;
+        this.forests = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<String, Fitted> eldest) {
+                return size() > LocalAnomalyDetector.this.maxForests;
+            }
+        };
+    }
+
+    public AnomalyResult score(double[] history, double x) {
+        return score(null, history, x);
+    }
+
+    /** As {@link #score(double[], double)}, reusing the forest fitted for {@code cacheKey} if its history is the same. */
+    public AnomalyResult score(String cacheKey, double[] history, double x) {
+        int n = history.length;
+
+        // Small-sample heuristic (bootstrapping)
+        if (n < 3) {
+            double mu = 0.0;
+            for (double h : history) mu += h;
+            mu = n > 0 ? mu / n : 0.0;
+            boolean anomaly = x >= 5000 || (n > 0 && x > 1.8 * mu);
+            double score = (x - mu) / (mu != 0.0 ? mu : 1.0);
+            return new AnomalyResult(anomaly, score, "small-sample");
+        }
+
+        double[] sorted = history.clone();
+        Arrays.sort(sorted);
+
+        // IsolationForest if enough data & variability
+        if (n >= 8 && distinct(sorted) >= 3) {
+            var forest = forest(cacheKey, history);
+            double decision = forest.decisionFunction(x);
+            return new AnomalyResult(decision < 0, -decision, "isoforest");
+        }
+
+        // Robust Z with MAD
+        double median = median(sorted);
+        double[] dev = new double[n];
+        for (int i = 0; i < n; i++) dev[i] = Math.abs(sorted[i] - median);
+        Arrays.sort(dev);
+        double mad = median(dev);
+        if (mad > 0) {
+            double z = Math.abs(x - median) / (1.4826 * mad);
+            return new AnomalyResult(z >= 2.5, z, "mad-z");
+        }
+
+        // Flat data fallback: ratio check
+        double ratio = x / (median != 0.0 ? median : 1.0);
+        return new AnomalyResult(ratio >= 1.8 || x >= 5000, ratio, "ratio");
+    }
+
+    private IsolationForest forest(String cacheKey, double[] history) {
+        if (cacheKey == null || maxForests <= 0) return IsolationForest.fit(history, TREES, CONTAMINATION, SEED);
+        synchronized (forests) {
+            Fitted f = forests.get(cacheKey);
+            if (f != null && Arrays.equals(f.history(), history)) return f.forest();
+        }
+        // fitted outside the lock; a concurrent fit of the same key just overwrites with an equal forest
+        var forest = IsolationForest.fit(history, TREES, CONTAMINATION, SEED);
+        synchronized (forests) {
+            forests.put(cacheKey, new Fitted(history.clone(), forest));
+        }
+        return forest;
+    }
+
+    private static int distinct(double[] sorted) {
+        int d = 1;
+        for (int i = 1; i < sorted.length; i++) if (sorted[i] != sorted[i - 1]) d++;
+        return d;
+    }
+
+    private static double median(double[] sorted) {
+        int n = sorted.length, mid = n / 2;
+        return (n % 2 == 1) ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2.0;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.fintrack.ml;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The only way to reach ml-service. Wraps the pooled {@code mlClient} with a concurrency
+ * bulkhead and a circuit breaker; anything that does not produce a body is surfaced as
+ * {@link MlUnavailableException} so every caller handles "ML down" the same way.
+ */
+@Component
+public class MlGateway {
+    private static final Logger log = LoggerFactory.getLogger(MlGateway.class);
+
+    private final RestClient mlClient;
+    private final Semaphore bulkhead;
+    private final long bulkheadWaitMs;
+    private final CircuitBreaker breaker;
+    private final MeterRegistry meters;
+
+    public MlGateway(RestClient mlClient, MeterRegistry meters,
+                     @Value("${app.ml.bulkhead.max-concurrent:16}") int maxConcurrent,
+                     @Value("${app.ml.bulkhead.max-wait-ms:0}") long bulkheadWaitMs,
+                     @Value("${app.ml.breaker.failure-threshold:5}") int failureThreshold,
+                     @Value("${app.ml.breaker.open-ms:30000}") long openMs) {
+        this.mlClient = mlClient;
+        this.meters = meters;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.bulkheadWaitMs = bulkheadWaitMs;
+        this.breaker = new CircuitBreaker(failureThreshold, openMs, System::currentTimeMillis, (from, to) -> {
+            log.warn("[ML] circuit {} -> {}", from, to);
+            Counter.builder("ml.client.circuit.transitions")
+                    .tag("from", from.name()).tag("to", to.name())
+                    .register(meters).increment();
+        });
+        Gauge.builder("ml.client.circuit.state", breaker, b -> b.state().ordinal())
+                .description("0=closed, 1=half-open, 2=open").register(meters);
+        Gauge.builder("ml.client.bulkhead.available", bulkhead, Semaphore::availablePermits).register(meters);
+    }
+
+    public <T> T post(String uri, Object body, Class<T> type) {
+        if (!acquireBulkhead()) {
+            count(uri, "rejected");
+            throw new MlUnavailableException("ML bulkhead full");
+        }
+        try {
+            if (!breaker.tryAcquire()) {
+                count(uri, "short_circuited");
+                throw new MlUnavailableException("ML circuit open");
+            }
+            Timer.Sample sample = Timer.start(meters);
+            try {
+                T result = mlClient.post().uri(uri).body(body).retrieve().body(type);
+                breaker.onSuccess();
+                count(uri, "success");
+                if (result == null) throw new MlUnavailableException("empty ML response from " + uri);
+                return result;
+            } catch (HttpClientErrorException e) {
+                breaker.onIgnored(); // upstream is alive, our request was bad
+                count(uri, "client_error");
+                throw new MlUnavailableException("ML rejected request: " + e.getStatusCode().value(), e);
+            } catch (MlUnavailableException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                breaker.onFailure();
+                count(uri, "failure");
+                throw new MlUnavailableException("ML call failed: " + e.getMessage(), e);
+            } finally {
+                sample.stop(Timer.builder("ml.client.latency").tag("uri", uri).register(meters));
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public CircuitBreaker.State circuitState() { return breaker.state(); }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkheadWaitMs <= 0 ? bulkhead.tryAcquire() : bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void count(String uri, String outcome) {
+        Counter.builder("ml.client.calls").tag("uri", uri).tag("outcome", outcome).register(meters).increment();
+    }
+}
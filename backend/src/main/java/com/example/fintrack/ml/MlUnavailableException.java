@@ -0,0 +1,9 @@
+package com.example.fintrack.ml;
+
+/** ML service call refused (breaker open, bulkhead full) or failed; callers use their local fallback. */
+public class MlUnavailableException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public MlUnavailableException(String message) { super(message); }
+    public MlUnavailableException(String message, Throwable cause) { super(message, cause); }
+}
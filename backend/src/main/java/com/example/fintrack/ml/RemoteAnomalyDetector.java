@@ -0,0 +1,23 @@
+package com.example.fintrack.ml;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/** Calls ml-service's {@code /anomaly/expense}; only used when {@code app.anomaly.engine=remote}. */
+@Component
+public class RemoteAnomalyDetector {
+
+    private final MlGateway ml;
+
+    public RemoteAnomalyDetector(MlGateway ml) { this.ml = ml; }
+
+    public AnomalyResult score(double[] history, double x) {
+        Map<?, ?> body = ml.post("/anomaly/expense", Map.of("history", history, "candidate", x), Map.class);
+        Object sc = body.get("score");
+        return new AnomalyResult(
+                Boolean.TRUE.equals(body.get("is_anomaly")),
+                sc instanceof Number ? ((Number) sc).doubleValue() : 0.0,
+                String.valueOf(body.get("method")));
+    }
+}
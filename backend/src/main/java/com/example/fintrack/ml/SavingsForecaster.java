@@ -0,0 +1,79 @@
+package com.example.fintrack.ml;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * In-process port of ml-service's {@code /predict/savings}. {@link Model#LINEAR} reproduces the
+ * sklearn LinearRegression-on-time-index result (including Python's round-half-even to 2 places);
+ * {@link Model#HOLT} is double exponential smoothing for series with a drifting trend.
+ */
+@Component
+public class SavingsForecaster {
+
+    public enum Model { LINEAR, HOLT }
+
+    private final double alpha;
+    private final double beta;
+
+    public SavingsForecaster(@Value("${app.forecast.holt.alpha:0.5}") double alpha,
+                             @Value("${app.forecast.holt.beta:0.3}") double beta) {
+        this.alpha = alpha; this.beta = beta;
+    }
+
+    /** One-step-ahead savings forecast for {@code y} (oldest first), rounded like the ML service. */
+    public double forecast(double[] y, Model model) {
+        int n = y.length;
+        if (n == 0) return 0.0;
+        double pred;
+        if (n < 2 || !varies(y)) pred = mean(y);
+        else pred = model == Model.HOLT ? holt(y) : linear(y);
+        return round2(pred);
+    }
+
+    /** OLS fit of y on x = 0..n-1, evaluated at x = n. */
+    static double linear(double[] y) {
+        int n = y.length;
+        double xm = (n - 1) / 2.0;
+        double ym = mean(y);
+        double sxy = 0.0, sxx = 0.0;
+        for (int i = 0; i < n; i++) {
+            double dx = i - xm;
+            sxy += dx * (y[i] - ym);
+            sxx += dx * dx;
+        }
+        double slope = sxy / sxx;
+        return ym + slope * (n - xm);
+    }
+
+    /** Holt's linear trend method; level seeded with y[0], trend with y[1] - y[0]. */
+    double holt(double[] y) {
+        double level = y[0], trend = y[1] - y[0];
+        for (int i = 1; i < y.length; i++) {
+            double prevLevel = level;
+            level = alpha * y[i] + (1 - alpha) * (level + trend);
+            trend = beta * (level - prevLevel) + (1 - beta) * trend;
+        }
+        return level + trend;
+    }
+
+    private static double mean(double[] y) {
+        double s = 0.0;
+        for (double v : y) s += v;
+        return s / y.length;
+    }
+
+    private static boolean varies(double[] y) {
+        for (int i = 1; i < y.length; i++) if (y[i] != y[0]) return true;
+        return false;
+    }
+
+    /** Python's round(x, 2): half-even on the exact binary value. */
+    private static double round2(double x) {
+        if (Double.isNaN(x) || Double.isInfinite(x)) return x;
+        return new BigDecimal(x).setScale(2, RoundingMode.HALF_EVEN).doubleValue();
+    }
+}
@@ -1,13 +1,15 @@
 package com.example.fintrack.model;
 
 import jakarta.persistence.*;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(
         name = "alerts",
         indexes = {
-                @Index(name = "idx_alerts_user_read", columnList = "user_id,read_flag"),
+                @Index(name = "idx_alerts_user_read_created", columnList = "user_id,read_flag,created_at,id"),
+                @Index(name = "idx_alerts_user_created", columnList = "user_id,created_at,id"),
                 @Index(name = "idx_alerts_tx", columnList = "tx_id")
         }
 )
@@ -37,6 +39,19 @@ public class Alert {
     @Column(name = "tx_id")
     private Long txId;
 
+    /** Coalescing: category the window is keyed on, merged occurrence count and amount range. */
+    @Column(name = "category")
+    private String category;
+
+    @Column(name = "occurrences", nullable = false, columnDefinition = "integer default 1 not null")
+    private int occurrences = 1;
+
+    @Column(name = "min_amount", precision = 19, scale = 2)
+    private BigDecimal minAmount;
+
+    @Column(name = "max_amount", precision = 19, scale = 2)
+    private BigDecimal maxAmount;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -57,6 +72,14 @@ public class Alert {
     public void setMessage(String message) { this.message = message; }
     public Long getTxId() { return txId; }
     public void setTxId(Long txId) { this.txId = txId; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public int getOccurrences() { return occurrences; }
+    public void setOccurrences(int occurrences) { this.occurrences = occurrences; }
+    public BigDecimal getMinAmount() { return minAmount; }
+    public void setMinAmount(BigDecimal minAmount) { this.minAmount = minAmount; }
+    public BigDecimal getMaxAmount() { return maxAmount; }
+    public void setMaxAmount(BigDecimal maxAmount) { this.maxAmount = maxAmount; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public boolean isReadFlag() { return readFlag; }
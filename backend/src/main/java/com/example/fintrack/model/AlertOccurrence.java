@@ -0,0 +1,43 @@
+package com.example.fintrack.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One transaction merged into a coalesced anomaly alert. The alert's occurrences/min/max are
+ * recomputed from these rows, so they follow deletes of any member, not just the first.
+ */
+@Entity
+@Table(name = "alert_occurrences",
+        indexes = { @Index(name = "idx_alert_occurrences_alert", columnList = "alert_id") })
+public class AlertOccurrence {
+    /** A transaction belongs to at most one anomaly alert. */
+    @Id
+    @Column(name = "tx_id")
+    private Long txId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "alert_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Alert alert;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "tx_date", nullable = false)
+    private LocalDate txDate;
+
+    /** Median of the history the transaction was judged against. */
+    @Column(name = "typical_amount", precision = 19, scale = 2)
+    private BigDecimal typicalAmount;
+
+    public Long getTxId() { return txId; }
+    public Alert getAlert() { return alert; }
+    public BigDecimal getAmount() { return amount; }
+    public LocalDate getTxDate() { return txDate; }
+    public BigDecimal getTypicalAmount() { return typicalAmount; }
+}
@@ -7,7 +7,9 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "bills", indexes = {
-        @Index(name="idx_bills_user_active", columnList = "user_id,active")
+        @Index(name="idx_bills_user_active", columnList = "user_id,active"),
+        @Index(name="idx_bills_next_notify", columnList = "next_notify_date,user_id"),
+        @Index(name="idx_bills_occurrences_through", columnList = "occurrences_through")
 })
 public class Bill {
 
@@ -26,9 +28,21 @@ public class Bill {
     @Column(nullable = false, precision = 19, scale = 2)
     private BigDecimal amount;
 
-    /** Day of month 1..28 (simple monthly recurrence) */
+    /** Day of month 1..31, clamped to the month's length; -1 = last day. Unused for WEEKLY. */
     @Column(name = "due_day", nullable = false)
-    private int dueDay; // 1..28
+    private int dueDay;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "frequency", columnDefinition = "varchar(16) default 'MONTHLY' not null")
+    private Recurrence.Freq frequency = Recurrence.Freq.MONTHLY;
+
+    /** Every N weeks/months/years: biweekly = WEEKLY/2, quarterly = MONTHLY/3. */
+    @Column(name = "repeat_interval", columnDefinition = "integer default 1 not null")
+    private int repeatInterval = 1;
+
+    /** First possible occurrence; fixes the weekday (WEEKLY) and the phase of the interval. */
+    @Column(name = "anchor_date")
+    private LocalDate anchorDate;
 
     /** Send reminder X days before due date (default 3) */
     @Column(name = "lead_days", nullable = false)
@@ -41,6 +55,18 @@ public class Bill {
     @Column(name = "last_notified_ym", length = 7)
     private String lastNotifiedYm;
 
+    /** Due date of the last occurrence a reminder went out for. */
+    @Column(name = "last_notified_due")
+    private LocalDate lastNotifiedDue;
+
+    /** Next day a reminder is due (due date minus leadDays); null while inactive. */
+    @Column(name = "next_notify_date")
+    private LocalDate nextNotifyDate;
+
+    /** Last due date materialized into bill_occurrences; null until first materialized. */
+    @Column(name = "occurrences_through")
+    private LocalDate occurrencesThrough;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -56,19 +82,59 @@ public class Bill {
     public void setAmount(BigDecimal amount) { this.amount = amount; }
     public int getDueDay() { return dueDay; }
     public void setDueDay(int dueDay) { this.dueDay = dueDay; }
+    public Recurrence.Freq getFrequency() { return frequency; }
+    public void setFrequency(Recurrence.Freq frequency) { this.frequency = frequency; }
+    public int getRepeatInterval() { return repeatInterval; }
+    public void setRepeatInterval(int repeatInterval) { this.repeatInterval = repeatInterval; }
+    public LocalDate getAnchorDate() { return anchorDate; }
+    public void setAnchorDate(LocalDate anchorDate) { this.anchorDate = anchorDate; }
     public int getLeadDays() { return leadDays; }
     public void setLeadDays(int leadDays) { this.leadDays = leadDays; }
     public boolean isActive() { return active; }
     public void setActive(boolean active) { this.active = active; }
     public String getLastNotifiedYm() { return lastNotifiedYm; }
     public void setLastNotifiedYm(String lastNotifiedYm) { this.lastNotifiedYm = lastNotifiedYm; }
+    public LocalDate getLastNotifiedDue() { return lastNotifiedDue; }
+    public void setLastNotifiedDue(LocalDate lastNotifiedDue) { this.lastNotifiedDue = lastNotifiedDue; }
+    public LocalDate getOccurrencesThrough() { return occurrencesThrough; }
+    public void setOccurrencesThrough(LocalDate occurrencesThrough) { this.occurrencesThrough = occurrencesThrough; }
+    public LocalDate getNextNotifyDate() { return nextNotifyDate; }
+    public void setNextNotifyDate(LocalDate nextNotifyDate) { this.nextNotifyDate = nextNotifyDate; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
-    /** Compute this month’s due date (clamps to 28). */
+    /** The bill's schedule; bills saved before recurrences existed are monthly from their creation day. */
+    @Transient
+    public Recurrence recurrence() {
+        return new Recurrence(frequency == null ? Recurrence.Freq.MONTHLY : frequency, Math.max(1, repeatInterval),
+                dueDay, anchorDate != null ? anchorDate : createdAt.toLocalDate());
+    }
+
+    /** Reminders have been sent for every occurrence due on or before this day (null = none yet). */
+    @Transient
+    public LocalDate notifiedThrough() {
+        if (lastNotifiedDue != null) return lastNotifiedDue;
+        // rows from before last_notified_due: the month-based marker covered the whole month
+        return lastNotifiedYm == null ? null : java.time.YearMonth.parse(lastNotifiedYm).atEndOfMonth();
+    }
+
+    /** Recompute {@link #nextNotifyDate} as of {@code today}; call after any schedule change. */
+    public void refreshNextNotifyDate(LocalDate today) {
+        this.nextNotifyDate = active ? nextNotifyDate(today, notifiedThrough()) : null;
+    }
+
+    /**
+     * First reminder day on/after {@code from} for an occurrence due after {@code notifiedThrough};
+     * the reminder may fall before {@code from}'s month when leadDays reaches back.
+     */
     @Transient
-    public LocalDate dueDateForMonth(java.time.YearMonth ym) {
-        int day = Math.max(1, Math.min(28, dueDay));
-        return ym.atDay(day);
+    public LocalDate nextNotifyDate(LocalDate from, LocalDate notifiedThrough) {
+        LocalDate start = notifiedThrough != null && !notifiedThrough.isBefore(from) ? notifiedThrough.plusDays(1) : from;
+        var due = recurrence().cursor(start);
+        long fromDay = from.toEpochDay();
+        while (true) {
+            long notify = due.next() - leadDays;
+            if (notify >= fromDay) return LocalDate.ofEpochDay(notify);
+        }
     }
 }
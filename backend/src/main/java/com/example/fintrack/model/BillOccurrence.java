@@ -0,0 +1,42 @@
+package com.example.fintrack.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** One materialized due date of a bill; the next N per bill are kept ahead of today, paid ones kept for good. */
+@Entity
+@Table(name = "bill_occurrences",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_bill_occurrences_bill_due", columnNames = {"bill_id", "due_date"}),
+                // one payment pays one occurrence
+                @UniqueConstraint(name = "uk_bill_occurrences_paid_tx", columnNames = "paid_tx_id")
+        },
+        indexes = @Index(name = "idx_bill_occurrences_user_due", columnList = "user_id,due_date"))
+public class BillOccurrence {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bill_id", nullable = false)
+    private Long billId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    /** Transaction matched as this occurrence's payment (BillMatcher); null while unpaid. */
+    @Column(name = "paid_tx_id")
+    private Long paidTxId;
+
+    public Long getId() { return id; }
+    public Long getBillId() { return billId; }
+    public Long getUserId() { return userId; }
+    public LocalDate getDueDate() { return dueDate; }
+    public BigDecimal getAmount() { return amount; }
+    public Long getPaidTxId() { return paidTxId; }
+}
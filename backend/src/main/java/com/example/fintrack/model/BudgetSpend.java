@@ -0,0 +1,43 @@
+package com.example.fintrack.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Running total of a user's transactions per month and category, maintained in the same
+ * transaction as every transaction insert/delete (BudgetSpendService); read by the budget overview.
+ */
+@Entity
+@Table(name = "budget_spend",
+        uniqueConstraints = @UniqueConstraint(name = "uk_budget_spend_user_month_cat", columnNames = {"user_id", "year", "month", "category"}))
+public class BudgetSpend {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private int year;
+
+    @Column(nullable = false)
+    private int month;
+
+    @Column(nullable = false, length = 32)
+    private String category;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal spent = BigDecimal.ZERO;
+
+    /** Highest alert threshold (percent of the limit) already alerted for this month; 0 = none. */
+    @Column(name = "alerted_pct", nullable = false)
+    private int alertedPct;
+
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public int getYear() { return year; }
+    public int getMonth() { return month; }
+    public String getCategory() { return category; }
+    public BigDecimal getSpent() { return spent; }
+    public int getAlertedPct() { return alertedPct; }
+}
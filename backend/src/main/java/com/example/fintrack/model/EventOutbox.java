@@ -0,0 +1,56 @@
+package com.example.fintrack.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/** A domain event queued for Kafka; written in the publisher's transaction and relayed by EventRelay. */
+@Entity
+@Table(name = "event_outbox",
+        indexes = {
+                @Index(name = "idx_event_outbox_pending", columnList = "delivered_at,next_attempt_at,id"),
+                @Index(name = "idx_event_outbox_key", columnList = "event_key,id")
+        })
+public class EventOutbox {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 200)
+    private String topic;
+
+    @Column(name = "event_key", length = 200)
+    private String eventKey;
+
+    /** The serialized EventEnvelope. */
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    /** Null while pending. */
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+
+    public Long getId() { return id; }
+    public String getTopic() { return topic; }
+    public void setTopic(String topic) { this.topic = topic; }
+    public String getEventKey() { return eventKey; }
+    public void setEventKey(String eventKey) { this.eventKey = eventKey; }
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    public int getAttempts() { return attempts; }
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public String getLastError() { return lastError; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getDeliveredAt() { return deliveredAt; }
+}
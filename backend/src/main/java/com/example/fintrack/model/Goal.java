@@ -32,8 +32,18 @@ public class Goal {
     @Column(nullable = false)
     private Status status = Status.ACTIVE;
 
-    @Column(name = "contributed", nullable = false, precision = 19, scale = 2)
-    private BigDecimal contributed = BigDecimal.ZERO;      // <— NEW running total
+    /** Running total; the source of truth for goal views. Only ever changed by GoalRepository#addContribution. */
+    @Column(name = "contributed", nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal contributed = BigDecimal.ZERO;
+
+    /** Optimistic lock for name/target/status edits; the contributed increment doesn't bump it. */
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0 not null")
+    private long version;
+
+    /** False only on rows whose goal_contributions predate the running total; see GoalRepository#foldContributions. */
+    @Column(name = "contributions_folded", columnDefinition = "boolean default false not null")
+    private boolean contributionsFolded = true;
 
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
@@ -61,7 +71,7 @@ public class Goal {
     public Status getStatus() { return status; }
     public void setStatus(Status status) { this.status = status; }
     public BigDecimal getContributed() { return contributed; }
-    public void setContributed(BigDecimal contributed) { this.contributed = contributed; }
+    public long getVersion() { return version; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
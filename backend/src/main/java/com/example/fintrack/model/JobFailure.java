@@ -0,0 +1,42 @@
+package com.example.fintrack.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/** A user a batch job run could not handle; kept for inspection and manual re-send. */
+@Entity
+@Table(name = "job_failures",
+        indexes = { @Index(name = "idx_job_failures_run", columnList = "job_name,run_key") })
+public class JobFailure {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "run_key", nullable = false, length = 40)
+    private String runKey;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public JobFailure() {}
+
+    public JobFailure(String jobName, String runKey, Long userId, String error) {
+        this.jobName = jobName; this.runKey = runKey; this.userId = userId;
+        this.error = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    public Long getId() { return id; }
+    public String getJobName() { return jobName; }
+    public String getRunKey() { return runKey; }
+    public Long getUserId() { return userId; }
+    public String getError() { return error; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
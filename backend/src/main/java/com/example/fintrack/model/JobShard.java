@@ -0,0 +1,84 @@
+package com.example.fintrack.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One user-id range of a batch job run. Replicas claim PENDING shards (or RUNNING ones whose
+ * lease ran out) and advance {@code lastUserId} page by page while holding the lease.
+ */
+@Entity
+@Table(name = "job_shards",
+        uniqueConstraints = @UniqueConstraint(name = "uk_job_shards_run_no", columnNames = {"job_name", "run_key", "shard_no"}),
+        indexes = { @Index(name = "idx_job_shards_claim", columnList = "status,lease_until,id") })
+public class JobShard {
+    public enum Status { PENDING, RUNNING, DONE, FAILED }
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    /** Identifies one run of the job, e.g. the trigger date. */
+    @Column(name = "run_key", nullable = false, length = 40)
+    private String runKey;
+
+    @Column(name = "shard_no", nullable = false)
+    private int shardNo;
+
+    /** Inclusive user id bounds. */
+    @Column(name = "from_user_id", nullable = false)
+    private long fromUserId;
+
+    @Column(name = "to_user_id", nullable = false)
+    private long toUserId;
+
+    /** Every user in range with id <= this has been handled. */
+    @Column(name = "last_user_id", nullable = false)
+    private long lastUserId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    @Column(length = 100)
+    private String owner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private long sent;
+
+    @Column(nullable = false)
+    private long failed;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public JobShard() {}
+
+    public JobShard(String jobName, String runKey, int shardNo, long fromUserId, long toUserId) {
+        this.jobName = jobName; this.runKey = runKey; this.shardNo = shardNo;
+        this.fromUserId = fromUserId; this.toUserId = toUserId; this.lastUserId = fromUserId - 1;
+    }
+
+    public Long getId() { return id; }
+    public String getJobName() { return jobName; }
+    public String getRunKey() { return runKey; }
+    public int getShardNo() { return shardNo; }
+    public long getFromUserId() { return fromUserId; }
+    public long getToUserId() { return toUserId; }
+    public long getLastUserId() { return lastUserId; }
+    public Status getStatus() { return status; }
+    public String getOwner() { return owner; }
+    public LocalDateTime getLeaseUntil() { return leaseUntil; }
+    public int getAttempts() { return attempts; }
+    public long getSent() { return sent; }
+    public long getFailed() { return failed; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,87 @@
+package com.example.fintrack.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A queued outgoing email; written in the sender's transaction and delivered by MailDispatcher.
+ * Batch jobs set (jobName, runKey, userId) so a resumed run can't queue the same user's mail twice.
+ */
+@Entity
+@Table(name = "mail_outbox",
+        uniqueConstraints = @UniqueConstraint(name = "uk_mail_outbox_job_run_user", columnNames = {"job_name", "run_key", "user_id"}),
+        indexes = { @Index(name = "idx_mail_outbox_due", columnList = "status,next_attempt_at,id") })
+public class MailOutbox {
+    public enum Status { PENDING, SENT, DEAD }
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 320)
+    private String recipient;
+
+    @Column(nullable = false, length = 500)
+    private String subject;
+
+    /** e.g. {@code text/html; charset=UTF-8} */
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(nullable = false)
+    private byte[] body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    /** Idempotency key for batch mail; null for one-off messages. */
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(name = "run_key", length = 40)
+    private String runKey;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    public Long getId() { return id; }
+    public String getRecipient() { return recipient; }
+    public void setRecipient(String recipient) { this.recipient = recipient; }
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    public byte[] getBody() { return body; }
+    public void setBody(byte[] body) { this.body = body; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) {
+        this.lastError = lastError != null && lastError.length() > 1000 ? lastError.substring(0, 1000) : lastError;
+    }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+    public String getJobName() { return jobName; }
+    public String getRunKey() { return runKey; }
+    public Long getUserId() { return userId; }
+}
@@ -0,0 +1,20 @@
+package com.example.fintrack.model;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/** Shared pacing state (next free send slot) for a limit that applies across all replicas. */
+@Entity
+@Table(name = "rate_limits")
+public class RateLimit {
+    @Id
+    @Column(length = 40)
+    private String name;
+
+    /** Postgres clock, so replicas' own clocks don't matter. */
+    @Column(name = "next_free", nullable = false, columnDefinition = "timestamptz")
+    private OffsetDateTime nextFree;
+
+    public String getName() { return name; }
+    public OffsetDateTime getNextFree() { return nextFree; }
+}
@@ -0,0 +1,102 @@
+package com.example.fintrack.model;
+
+import java.time.LocalDate;
+
+/**
+ * RRULE-style schedule: every {@code interval} weeks, months or years starting at {@code anchor}.
+ * WEEKLY repeats the anchor's weekday; MONTHLY/YEARLY use {@code monthDay} (clamped to the month's
+ * length, {@link #LAST_DAY} for the last day) in the anchor's month phase. Dates are worked out on
+ * epoch days, so walking a {@link Cursor} over a multi-year range allocates nothing per occurrence.
+ */
+public final class Recurrence {
+
+    public enum Freq { WEEKLY, MONTHLY, YEARLY }
+
+    public static final int LAST_DAY = -1;
+
+    private final Freq freq;
+    private final int interval;
+    private final int monthDay;
+    private final long anchorDay;
+    private final long anchorMonth; // year * 12 + (month - 1)
+
+    public Recurrence(Freq freq, int interval, int monthDay, LocalDate anchor) {
+        if (interval < 1) throw new IllegalArgumentException("interval must be >= 1");
+        if (freq != Freq.WEEKLY && monthDay != LAST_DAY && (monthDay < 1 || monthDay > 31)) {
+            throw new IllegalArgumentException("dueDay must be 1..31 or -1 (last day)");
+        }
+        this.freq = freq;
+        this.interval = interval;
+        this.monthDay = monthDay;
+        this.anchorDay = anchor.toEpochDay();
+        this.anchorMonth = anchor.getYear() * 12L + anchor.getMonthValue() - 1;
+    }
+
+    /** First occurrence on or after {@code from} (never before the anchor). */
+    public LocalDate firstOnOrAfter(LocalDate from) {
+        return LocalDate.ofEpochDay(cursor(from).next());
+    }
+
+    /** Occurrences from {@code from} onwards, in order. */
+    public Cursor cursor(LocalDate from) {
+        long day = Math.max(from.toEpochDay(), anchorDay);
+        if (freq == Freq.WEEKLY) {
+            long period = 7L * interval;
+            return new Cursor(anchorDay + ceilDiv(day - anchorDay, period) * period, period, false);
+        }
+        long step = freq == Freq.YEARLY ? 12L * interval : interval;
+        LocalDate d = LocalDate.ofEpochDay(day);
+        long month = d.getYear() * 12L + d.getMonthValue() - 1;
+        long m = anchorMonth + ceilDiv(month - anchorMonth, step) * step;
+        if (dayIn(m) < day) m += step;
+        return new Cursor(m, step, true);
+    }
+
+    /** Forward-only iterator over occurrence epoch days; unbounded, so callers stop on their own range. */
+    public final class Cursor {
+        private long pos;
+        private final long step;
+        private final boolean byMonth;
+
+        private Cursor(long pos, long step, boolean byMonth) {
+            this.pos = pos; this.step = step; this.byMonth = byMonth;
+        }
+
+        /** Epoch day of the next occurrence. */
+        public long next() {
+            long day = byMonth ? dayIn(pos) : pos;
+            pos += step;
+            return day;
+        }
+    }
+
+    private long dayIn(long month) {
+        int y = (int) Math.floorDiv(month, 12L);
+        int m = (int) Math.floorMod(month, 12L) + 1;
+        int len = lengthOfMonth(y, m);
+        return epochDay(y, m, monthDay == LAST_DAY ? len : Math.min(monthDay, len));
+    }
+
+    /** Smallest k >= 0 with k * b >= a (b > 0). */
+    static long ceilDiv(long a, long b) {
+        return a <= 0 ? 0 : -Math.floorDiv(-a, b);
+    }
+
+    static int lengthOfMonth(int y, int m) {
+        return switch (m) {
+            case 2 -> (y % 4 == 0 && (y % 100 != 0 || y % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /** Proleptic Gregorian y-m-d to epoch day (days_from_civil). */
+    static long epochDay(int y, int m, int d) {
+        if (m <= 2) y--;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153L * (m > 2 ? m - 3 : m + 9) + 2) / 5 + d - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+}
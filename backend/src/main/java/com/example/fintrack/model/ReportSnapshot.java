@@ -0,0 +1,46 @@
+package com.example.fintrack.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/** Gzipped, rendered monthly report for a closed month; dropped when that month's data changes. */
+@Entity
+@Table(name = "report_snapshots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_report_snapshots_user_ym", columnNames = {"user_id", "ym"}))
+public class ReportSnapshot {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /** yyyy-MM */
+    @Column(nullable = false, length = 7)
+    private String ym;
+
+    @Column(nullable = false, length = 64)
+    private String etag;
+
+    @Column(name = "html_gz", nullable = false)
+    private byte[] htmlGz;
+
+    /** Template revision the snapshot was rendered with; older ones are re-rendered on read. */
+    @Column(name = "render_version", columnDefinition = "integer default 1 not null")
+    private int renderVersion = 1;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public String getYm() { return ym; }
+    public void setYm(String ym) { this.ym = ym; }
+    public String getEtag() { return etag; }
+    public void setEtag(String etag) { this.etag = etag; }
+    public byte[] getHtmlGz() { return htmlGz; }
+    public void setHtmlGz(byte[] htmlGz) { this.htmlGz = htmlGz; }
+    public int getRenderVersion() { return renderVersion; }
+    public void setRenderVersion(int renderVersion) { this.renderVersion = renderVersion; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
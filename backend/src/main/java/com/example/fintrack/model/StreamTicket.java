@@ -0,0 +1,27 @@
+package com.example.fintrack.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Single-use credential for opening the alert stream (EventSource can't send headers, and a JWT
+ * in the URL would end up in logs). Only the SHA-256 of the ticket is stored; redeeming deletes it.
+ */
+@Entity
+@Table(name = "stream_tickets",
+        indexes = { @Index(name = "idx_stream_tickets_expires", columnList = "expires_at") })
+public class StreamTicket {
+    @Id
+    @Column(name = "ticket_hash", length = 64)
+    private String ticketHash;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public String getTicketHash() { return ticketHash; }
+    public Long getUserId() { return userId; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
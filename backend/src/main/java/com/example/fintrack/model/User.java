@@ -14,6 +14,14 @@ public class User {
     private String passwordHash;
     @Enumerated(EnumType.STRING)
     private Role role = Role.USER;
+    /** IANA zone id, e.g. Asia/Kolkata; null means the app default. */
+    @Column(name = "time_zone", length = 64)
+    private String timeZone;
+
+    /** budget_spend has been built from this user's transactions; only ever written by BudgetSpendService. */
+    @Column(name = "spend_seeded", insertable = false, updatable = false,
+            columnDefinition = "boolean default false not null")
+    private boolean spendSeeded;
 
     public Long getId() { return id; }
     public String getEmail() { return email; }
@@ -22,4 +30,6 @@ public class User {
     public void setPasswordHash(String passwordHash) { this.passwordHash = passwordHash; }
     public Role getRole() { return role; }
     public void setRole(Role role) { this.role = role; }
+    public String getTimeZone() { return timeZone; }
+    public void setTimeZone(String timeZone) { this.timeZone = timeZone; }
 }
@@ -4,19 +4,65 @@ import com.example.fintrack.model.Alert;
 import com.example.fintrack.model.User;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface AlertRepository extends JpaRepository<Alert, Long> {
-    List<Alert> findTop50ByUserOrderByCreatedAtDesc(User u);
     Optional<Alert> findByIdAndUser(Long id, User u);
+    boolean existsByIdAndUser(Long id, User u);
 
     // robust count (no naming ambiguity)
     @Query("select count(a) from Alert a where a.user = :user and a.readFlag = false")
     long countUnread(@Param("user") User user);
 
+    @Query("select count(a) from Alert a where a.user.id = :userId and a.readFlag = false")
+    long countUnreadByUserId(@Param("userId") Long userId);
+
+    // keyset feed: rows strictly after the (createdAt, id) cursor, newest first.
+    // Row-value comparison lets Postgres walk idx_alerts_user_created / idx_alerts_user_read_created.
+    @Query(value = "select * from alerts where user_id = :userId and (created_at, id) < (:ts, :id) " +
+            "order by created_at desc, id desc limit :limit", nativeQuery = true)
+    List<Alert> feed(@Param("userId") Long userId, @Param("ts") LocalDateTime ts,
+                     @Param("id") long id, @Param("limit") int limit);
+
+    @Query(value = "select * from alerts where user_id = :userId and read_flag = false and (created_at, id) < (:ts, :id) " +
+            "order by created_at desc, id desc limit :limit", nativeQuery = true)
+    List<Alert> unreadFeed(@Param("userId") Long userId, @Param("ts") LocalDateTime ts,
+                           @Param("id") long id, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("update Alert a set a.readFlag = true where a.id = :id and a.user = :user and a.readFlag = false")
+    int markRead(@Param("id") Long id, @Param("user") User user);
+
+    @Transactional
+    @Modifying
+    @Query("update Alert a set a.readFlag = true where a.user = :user and a.readFlag = false and a.id in :ids")
+    int markReadByIds(@Param("user") User user, @Param("ids") Collection<Long> ids);
+
+    // everything at or below the cursor position (i.e. the cursor row and all older ones)
+    @Transactional
+    @Modifying
+    @Query(value = "update alerts set read_flag = true where user_id = :userId and read_flag = false " +
+            "and (created_at, id) <= (:ts, :id)", nativeQuery = true)
+    int markReadUpTo(@Param("userId") Long userId, @Param("ts") LocalDateTime ts, @Param("id") long id);
+
+    // coalescing: fold merged occurrences into the window's alert row
+    @Transactional
+    @Modifying
+    @Query("update Alert a set a.occurrences = :n, a.minAmount = :min, a.maxAmount = :max, " +
+            "a.severity = :severity, a.message = :message, a.readFlag = false where a.id = :id")
+    int updateCoalesced(@Param("id") Long id, @Param("n") int occurrences,
+                        @Param("min") BigDecimal min, @Param("max") BigDecimal max,
+                        @Param("severity") Alert.Severity severity, @Param("message") String message);
+
     // clean up alerts on TX delete
     @Transactional
     long deleteByTxIdAndUser(Long txId, User user);
@@ -0,0 +1,25 @@
+package com.example.fintrack.repository;
+
+import com.example.fintrack.model.BillOccurrence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface BillOccurrenceRepository extends JpaRepository<BillOccurrence, Long> {
+    List<BillOccurrence> findByUserIdAndDueDateBetweenOrderByDueDateAscBillIdAsc(Long userId, LocalDate from, LocalDate to);
+
+    List<BillOccurrence> findByUserIdAndDueDateBetweenAndPaidTxIdIsNotNull(Long userId, LocalDate from, LocalDate to);
+
+    /** Drop a bill's unpaid occurrences from {@code from} on, before re-materializing a changed schedule. */
+    @Modifying
+    @Query("delete from BillOccurrence o where o.billId = :billId and o.dueDate >= :from and o.paidTxId is null")
+    int deleteFrom(@Param("billId") Long billId, @Param("from") LocalDate from);
+
+    @Modifying
+    @Query("delete from BillOccurrence o where o.billId = :billId")
+    int deleteForBill(@Param("billId") Long billId);
+}
@@ -2,13 +2,84 @@ package com.example.fintrack.repository;
 
 import com.example.fintrack.model.Bill;
 import com.example.fintrack.model.User;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BillRepository extends JpaRepository<Bill, Long> {
     List<Bill> findByUserOrderByCreatedAtDesc(User u);
     List<Bill> findByUserAndActiveTrue(User u);
+    List<Bill> findByUserIdAndActiveTrue(Long userId);
     Optional<Bill> findByIdAndUser(Long id, User u);
-    List<Bill> findByActiveTrue(); // for scheduler (all users)
+
+    /** Keyset page of users with at least one reminder due on or before {@code today}. */
+    @Query("""
+           select distinct b.user.id from Bill b
+           where b.active = true and b.nextNotifyDate <= :today and b.user.id > :afterUserId
+           order by b.user.id
+           """)
+    List<Long> dueUserIds(@Param("today") LocalDate today, @Param("afterUserId") Long afterUserId, Pageable page);
+
+    /** Locked with SKIP LOCKED so two replicas firing the same user can't both send. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+           select b from Bill b join fetch b.user
+           where b.user.id in :userIds and b.active = true and b.nextNotifyDate <= :today
+           order by b.user.id, b.id
+           """)
+    List<Bill> dueForUsers(@Param("userIds") Collection<Long> userIds, @Param("today") LocalDate today);
+
+    @Modifying
+    @Query("""
+           update Bill b set b.lastNotifiedYm = :ym, b.lastNotifiedDue = :due, b.nextNotifyDate = :next
+           where b.id in :ids
+           """)
+    int markNotified(@Param("ids") Collection<Long> ids, @Param("ym") String ym,
+                     @Param("due") LocalDate due, @Param("next") LocalDate next);
+
+    @Modifying
+    @Query("update Bill b set b.nextNotifyDate = :next where b.id in :ids")
+    int reschedule(@Param("ids") Collection<Long> ids, @Param("next") LocalDate next);
+
+    interface NextReminder {
+        Long getUserId();
+        String getTimeZone();
+        LocalDate getNextDate();
+    }
+
+    /** Earliest pending reminder day per user, up to {@code until}. */
+    @Query("""
+           select b.user.id as userId, b.user.timeZone as timeZone, min(b.nextNotifyDate) as nextDate
+           from Bill b
+           where b.active = true and b.nextNotifyDate <= :until
+           group by b.user.id, b.user.timeZone
+           """)
+    List<NextReminder> nextReminders(@Param("until") LocalDate until);
+
+    @Query("select min(b.nextNotifyDate) from Bill b where b.user.id = :userId and b.active = true")
+    LocalDate nextNotifyDateForUser(@Param("userId") Long userId);
+
+    /** Active bills created before next_notify_date existed; backfilled by the daily run. */
+    List<Bill> findByActiveTrueAndNextNotifyDateIsNull(Pageable page);
+
+    /** Keyset page of active bills whose materialized occurrences end before {@code before}, or were never made. */
+    @Query("""
+           select b from Bill b
+           where b.active = true and b.id > :afterId
+             and (b.occurrencesThrough is null or b.occurrencesThrough < :before)
+           order by b.id
+           """)
+    List<Bill> needingOccurrences(@Param("before") LocalDate before, @Param("afterId") Long afterId, Pageable page);
 }
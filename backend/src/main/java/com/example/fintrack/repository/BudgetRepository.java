@@ -4,11 +4,17 @@ import com.example.fintrack.model.Budget;
 import com.example.fintrack.model.Category;
 import com.example.fintrack.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface BudgetRepository extends JpaRepository<Budget, Long> {
+public interface BudgetRepository extends JpaRepository<Budget, Long>, BudgetRepositoryCustom {
     List<Budget> findByUserAndYearAndMonth(User user, int year, int month);
     Optional<Budget> findByUserAndYearAndMonthAndCategory(User user, int year, int month, Category category);
+
+    /** Budgets for months {@code from..to} inclusive, given as {@code year * 12 + month}. */
+    @Query("select b from Budget b where b.user.id = :userId and b.year * 12 + b.month between :from and :to")
+    List<Budget> findRange(@Param("userId") Long userId, @Param("from") int from, @Param("to") int to);
 }
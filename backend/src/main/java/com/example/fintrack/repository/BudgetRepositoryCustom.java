@@ -0,0 +1,19 @@
+package com.example.fintrack.repository;
+
+import com.example.fintrack.dto.BudgetDtos;
+import com.example.fintrack.model.Category;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/** Set-based budget writes (Postgres {@code INSERT ... ON CONFLICT}); see BudgetRepositoryCustomImpl. */
+public interface BudgetRepositoryCustom {
+
+    /** Insert or overwrite the month's limit for every category in {@code limits}; one statement. */
+    List<BudgetDtos.BudgetView> upsertMonth(Long userId, YearMonth month, Map<Category, BigDecimal> limits);
+
+    /** Copy every budget of {@code source} into each month of [from, to], overwriting; one statement. */
+    List<BudgetDtos.BudgetView> copyMonth(Long userId, YearMonth source, YearMonth from, YearMonth to);
+}
@@ -0,0 +1,63 @@
+package com.example.fintrack.repository;
+
+import com.example.fintrack.dto.BudgetDtos;
+import com.example.fintrack.model.Category;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+class BudgetRepositoryCustomImpl implements BudgetRepositoryCustom {
+
+    private static final String UPSERT = """
+            insert into budgets (user_id, year, month, category, limit_amount)
+            select ?, ?, ?, i.category, i.limit_amount
+            from unnest(?::varchar[], ?::numeric[]) as i(category, limit_amount)
+            on conflict (user_id, year, month, category) do update set limit_amount = excluded.limit_amount
+            returning id, category, year, month, limit_amount
+            """;
+
+    private static final String COPY = """
+            insert into budgets (user_id, year, month, category, limit_amount)
+            select s.user_id, extract(year from m)::int, extract(month from m)::int, s.category, s.limit_amount
+            from budgets s
+            cross join generate_series(?::date, ?::date, interval '1 month') as m
+            where s.user_id = ? and s.year = ? and s.month = ?
+            on conflict (user_id, year, month, category) do update set limit_amount = excluded.limit_amount
+            returning id, category, year, month, limit_amount
+            """;
+
+    private static final RowMapper<BudgetDtos.BudgetView> VIEW = (rs, i) -> new BudgetDtos.BudgetView(
+            rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getInt(4), rs.getBigDecimal(5));
+
+    private final JdbcTemplate jdbc;
+
+    BudgetRepositoryCustomImpl(JdbcTemplate jdbc) { this.jdbc = jdbc; }
+
+    @Override
+    public List<BudgetDtos.BudgetView> upsertMonth(Long userId, YearMonth month, Map<Category, BigDecimal> limits) {
+        if (limits.isEmpty()) return List.of();
+        String[] categories = limits.keySet().stream().map(Category::name).toArray(String[]::new);
+        BigDecimal[] amounts = limits.values().toArray(BigDecimal[]::new);
+        return jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPSERT);
+            ps.setLong(1, userId);
+            ps.setInt(2, month.getYear());
+            ps.setInt(3, month.getMonthValue());
+            ps.setArray(4, con.createArrayOf("varchar", categories));
+            ps.setArray(5, con.createArrayOf("numeric", amounts));
+            return ps;
+        }, VIEW);
+    }
+
+    @Override
+    public List<BudgetDtos.BudgetView> copyMonth(Long userId, YearMonth source, YearMonth from, YearMonth to) {
+        return jdbc.query(COPY, VIEW, Date.valueOf(from.atDay(1)), Date.valueOf(to.atDay(1)),
+                userId, source.getYear(), source.getMonthValue());
+    }
+}
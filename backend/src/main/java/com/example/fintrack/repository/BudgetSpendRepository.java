@@ -0,0 +1,14 @@
+package com.example.fintrack.repository;
+
+import com.example.fintrack.model.BudgetSpend;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface BudgetSpendRepository extends JpaRepository<BudgetSpend, Long> {
+    /** Counters for months {@code from..to} inclusive, given as {@code year * 12 + month}. */
+    @Query("select s from BudgetSpend s where s.userId = :userId and s.year * 12 + s.month between :from and :to")
+    List<BudgetSpend> findRange(@Param("userId") Long userId, @Param("from") int from, @Param("to") int to);
+}
@@ -0,0 +1,49 @@
+package com.example.fintrack.repository;
+
+import com.example.fintrack.model.EventOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface EventOutboxRepository extends JpaRepository<EventOutbox, Long> {
+
+    /**
+     * Pending rows in publish order, locked; rows another relay holds are skipped rather than waited
+     * on. A row waits while an earlier row with the same key is backing off, so keys stay in order.
+     */
+    @Query(value = """
+            select * from event_outbox e
+            where e.delivered_at is null and e.next_attempt_at <= :now
+              and not exists (select 1 from event_outbox p
+                              where p.event_key = e.event_key and p.id < e.id
+                                and p.delivered_at is null and p.next_attempt_at > :now)
+            order by e.id
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<EventOutbox> lockPending(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update EventOutbox e set e.nextAttemptAt = :until where e.id in :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("""
+           update EventOutbox e set e.deliveredAt = :at, e.attempts = e.attempts + 1, e.lastError = null
+           where e.id in :ids
+           """)
+    int markDelivered(@Param("ids") Collection<Long> ids, @Param("at") LocalDateTime at);
+
+    @Modifying
+    @Query("update EventOutbox e set e.attempts = e.attempts + 1, e.nextAttemptAt = :next, e.lastError = :error where e.id = :id")
+    int retryLater(@Param("id") Long id, @Param("next") LocalDateTime next, @Param("error") String error);
+
+    @Modifying
+    @Query("delete from EventOutbox e where e.deliveredAt < :before")
+    int deleteDeliveredBefore(@Param("before") LocalDateTime before);
+}
@@ -3,6 +3,11 @@ package com.example.fintrack.repository;
 import com.example.fintrack.model.Goal;
 import com.example.fintrack.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,4 +15,23 @@ import java.util.Optional;
 public interface GoalRepository extends JpaRepository<Goal, Long> {
     List<Goal> findByUserOrderByCreatedAtDesc(User u);
     Optional<Goal> findByIdAndUser(Long id, User u);
+
+    /** Atomic in-database increment, so parallel contributions never lose an update; 0 if not the user's goal. */
+    @Modifying
+    @Query("update Goal g set g.contributed = g.contributed + :amount where g.id = :id and g.user = :user")
+    int addContribution(@Param("id") Long id, @Param("user") User user, @Param("amount") BigDecimal amount);
+
+    /**
+     * One-time fold of contribution rows written before every contribution also bumped
+     * {@code contributed}; idempotent through contributions_folded.
+     */
+    @Modifying
+    @Query(value = """
+            update goals g
+            set contributed = g.contributed
+                    + coalesce((select sum(c.amount) from goal_contributions c where c.goal_id = g.id), 0),
+                contributions_folded = true
+            where g.contributions_folded = false
+            """, nativeQuery = true)
+    int foldContributions();
 }
@@ -0,0 +1,10 @@
+package com.example.fintrack.repository;
+
+import com.example.fintrack.model.JobFailure;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface JobFailureRepository extends JpaRepository<JobFailure, Long> {
+    List<JobFailure> findByJobNameAndRunKey(String jobName, String runKey);
+}
@@ -0,0 +1,59 @@
+package com.example.fintrack.repository;
+
+import com.example.fintrack.model.JobShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface JobShardRepository extends JpaRepository<JobShard, Long> {
+
+    boolean existsByJobNameAndRunKey(String jobName, String runKey);
+
+    /** Next claimable shard, locked; shards another replica is claiming are skipped. */
+    @Query(value = """
+            select * from job_shards
+            where status = 'PENDING' or (status = 'RUNNING' and lease_until < :now)
+            order by id
+            limit 1
+            for update skip locked
+            """, nativeQuery = true)
+    Optional<JobShard> lockClaimable(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+           update JobShard s set s.status = com.example.fintrack.model.JobShard.Status.RUNNING,
+                  s.owner = :owner, s.leaseUntil = :until, s.attempts = s.attempts + 1
+           where s.id = :id
+           """)
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("until") LocalDateTime until);
+
+    /** Extend the leases of shards this node is still working on. */
+    @Modifying
+    @Query("""
+           update JobShard s set s.leaseUntil = :until
+           where s.id in :ids and s.owner = :owner and s.status = com.example.fintrack.model.JobShard.Status.RUNNING
+           """)
+    int renew(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("until") LocalDateTime until);
+
+    /** Advance progress and extend the lease; 0 means the lease was lost to another replica. */
+    @Modifying
+    @Query("""
+           update JobShard s set s.lastUserId = :lastUserId, s.sent = s.sent + :sent, s.failed = s.failed + :failed,
+                  s.leaseUntil = :until
+           where s.id = :id and s.owner = :owner and s.status = com.example.fintrack.model.JobShard.Status.RUNNING
+           """)
+    int checkpoint(@Param("id") Long id, @Param("owner") String owner, @Param("lastUserId") long lastUserId,
+                   @Param("sent") long sent, @Param("failed") long failed, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("""
+           update JobShard s set s.status = :status, s.leaseUntil = null
+           where s.id = :id and s.owner = :owner and s.status = com.example.fintrack.model.JobShard.Status.RUNNING
+           """)
+    int finish(@Param("id") Long id, @Param("owner") String owner, @Param("status") JobShard.Status status);
+}
@@ -0,0 +1,70 @@
+package com.example.fintrack.repository;
+
+import com.example.fintrack.model.MailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    /** Due rows, locked; rows another dispatcher holds are skipped rather than waited on. */
+    @Query(value = """
+            select * from mail_outbox
+            where status = 'PENDING' and next_attempt_at <= :now
+            order by id
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<MailOutbox> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    boolean existsByJobNameAndRunKeyAndUserId(String jobName, String runKey, Long userId);
+
+    /** Queue a batch job's mail for one user unless that run already queued it; 1 if inserted. */
+    @Modifying
+    @Query(value = """
+            insert into mail_outbox (recipient, subject, content_type, body, status, attempts,
+                                     next_attempt_at, created_at, job_name, run_key, user_id)
+            values (:to, :subject, :contentType, :body, 'PENDING', 0, :now, :now, :job, :runKey, :userId)
+            on conflict (job_name, run_key, user_id) do nothing
+            """, nativeQuery = true)
+    int insertOnce(@Param("job") String job, @Param("runKey") String runKey, @Param("userId") Long userId,
+                   @Param("to") String to, @Param("subject") String subject,
+                   @Param("contentType") String contentType, @Param("body") byte[] body,
+                   @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update MailOutbox m set m.nextAttemptAt = :until where m.id in :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("""
+           update MailOutbox m set m.status = com.example.fintrack.model.MailOutbox.Status.SENT,
+                  m.sentAt = :at, m.attempts = m.attempts + 1, m.lastError = null
+           where m.id in :ids
+           """)
+    int markSent(@Param("ids") Collection<Long> ids, @Param("at") LocalDateTime at);
+
+    @Modifying
+    @Query("update MailOutbox m set m.attempts = m.attempts + 1, m.nextAttemptAt = :next, m.lastError = :error where m.id = :id")
+    int retryLater(@Param("id") Long id, @Param("next") LocalDateTime next, @Param("error") String error);
+
+    @Modifying
+    @Query("""
+           update MailOutbox m set m.status = com.example.fintrack.model.MailOutbox.Status.DEAD,
+                  m.attempts = m.attempts + 1, m.lastError = :error
+           where m.id = :id
+           """)
+    int markDead(@Param("id") Long id, @Param("error") String error);
+
+    @Modifying
+    @Query("""
+           delete from MailOutbox m
+           where m.status = com.example.fintrack.model.MailOutbox.Status.SENT and m.sentAt < :before
+           """)
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
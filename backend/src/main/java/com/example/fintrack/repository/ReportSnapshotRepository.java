@@ -0,0 +1,18 @@
+package com.example.fintrack.repository;
+
+import com.example.fintrack.model.ReportSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface ReportSnapshotRepository extends JpaRepository<ReportSnapshot, Long> {
+    Optional<ReportSnapshot> findByUserIdAndYm(Long userId, String ym);
+
+    @Modifying
+    @Query("delete from ReportSnapshot s where s.userId = :userId and s.ym in :yms")
+    int deleteForMonths(@Param("userId") Long userId, @Param("yms") Collection<String> yms);
+}
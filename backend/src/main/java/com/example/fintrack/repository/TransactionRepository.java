@@ -4,7 +4,10 @@ import com.example.fintrack.model.Category;
 import com.example.fintrack.model.Transaction;
 import com.example.fintrack.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -14,4 +17,24 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
     List<Transaction> findByUserAndCategoryAndDateBetween(
             User user, Category category, LocalDate start, LocalDate end);
+
+    interface MonthTotals {
+        Integer getYr();
+        Integer getMo();
+        BigDecimal getIncome();
+        BigDecimal getExpense();
+    }
+
+    /** Income and expense per calendar month in [start, end]; months without transactions are absent. */
+    @Query("""
+           select extract(year from t.date) as yr, extract(month from t.date) as mo,
+                  sum(case when t.category = :income then t.amount else 0 end) as income,
+                  sum(case when t.category <> :income then t.amount else 0 end) as expense
+           from Transaction t
+           where t.user = :user and t.date between :start and :end
+           group by extract(year from t.date), extract(month from t.date)
+           order by 1, 2
+           """)
+    List<MonthTotals> monthlyTotals(@Param("user") User user, @Param("start") LocalDate start,
+                                    @Param("end") LocalDate end, @Param("income") Category income);
 }
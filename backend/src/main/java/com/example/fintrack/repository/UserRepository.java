@@ -1,12 +1,26 @@
 package com.example.fintrack.repository;
 
 import com.example.fintrack.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
 
+    /** Keyset page over users in (after, to] for batch jobs. */
+    List<User> findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(Long after, Long to, Pageable page);
+
+    /** First id of every consecutive run of {@code size} users (shard boundaries). */
+    @Query(value = """
+            select id from (select id, row_number() over (order by id) as rn from users) t
+            where (rn - 1) % :size = 0
+            order by id
+            """, nativeQuery = true)
+    List<Long> shardStarts(@Param("size") int size);
 }
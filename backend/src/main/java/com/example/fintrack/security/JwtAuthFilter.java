@@ -23,10 +23,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserRepository userRepo;
+    private final StreamTickets tickets;
 
-    public JwtAuthFilter(JwtUtil jwtUtil, UserRepository userRepo) {
+    public JwtAuthFilter(JwtUtil jwtUtil, UserRepository userRepo, StreamTickets tickets) {
         this.jwtUtil = jwtUtil;
         this.userRepo = userRepo;
+        this.tickets = tickets;
     }
 
     @Override
@@ -35,8 +37,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         try {
             String header = req.getHeader(HttpHeaders.AUTHORIZATION);
+            String token = null;
             if (header != null && header.startsWith("Bearer ")) {
-                String token = header.substring(7);
+                token = header.substring(7);
+            } else if ("/alerts/stream".equals(req.getServletPath())) {
+                // EventSource cannot send an Authorization header; it presents a single-use ticket
+                // from POST /alerts/stream-ticket instead (never the JWT, which would land in logs)
+                tickets.redeem(req.getParameter("ticket")).flatMap(userRepo::findById)
+                        .ifPresent(u -> authenticate(u, req));
+            }
+            if (token != null) {
 
                 String email = jwtUtil.getSubject(token); // may throw if malformed/expired
                 if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
@@ -47,14 +57,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                     }
 
                     Optional<User> u = userRepo.findByEmail(email);
-                    if (u.isPresent()) {
-                        var role = "ROLE_" + u.get().getRole().name();
-                        var auth = new UsernamePasswordAuthenticationToken(
-                                email, null, List.of(new SimpleGrantedAuthority(role))
-                        );
-                        auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
-                        SecurityContextHolder.getContext().setAuthentication(auth);
-                    }
+                    u.ifPresent(user -> authenticate(user, req));
                 }
             }
         } catch (Exception ignored) {
@@ -63,4 +66,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         chain.doFilter(req, res);
     }
+
+    private static void authenticate(User u, HttpServletRequest req) {
+        var role = "ROLE_" + u.getRole().name();
+        var auth = new UsernamePasswordAuthenticationToken(
+                u.getEmail(), null, List.of(new SimpleGrantedAuthority(role))
+        );
+        auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
+        SecurityContextHolder.getContext().setAuthentication(auth);
+    }
 }
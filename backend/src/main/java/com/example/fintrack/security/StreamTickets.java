@@ -0,0 +1,69 @@
+package com.example.fintrack.security;
+
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Short-lived, single-use tickets for {@code /alerts/stream} (see {@link com.example.fintrack.model.StreamTicket}).
+ * Kept in Postgres so a ticket issued by one replica can be redeemed on another.
+ */
+@Component
+public class StreamTickets {
+    private static final Logger log = LoggerFactory.getLogger(StreamTickets.class);
+
+    private final JdbcTemplate jdbc;
+    private final long ttlMs;
+    private final SecureRandom random = new SecureRandom();
+
+    public StreamTickets(JdbcTemplate jdbc, @Value("${app.alerts.stream.ticket-ttl-ms:30000}") long ttlMs) {
+        this.jdbc = jdbc; this.ttlMs = ttlMs;
+    }
+
+    public String issue(Long userId) {
+        byte[] raw = new byte[32];
+        random.nextBytes(raw);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        jdbc.update("insert into stream_tickets (ticket_hash, user_id, expires_at) values (?, ?, ?)",
+                hash(ticket), userId, Timestamp.valueOf(LocalDateTime.now().plusNanos(ttlMs * 1_000_000)));
+        return ticket;
+    }
+
+    /** The ticket's user, if it exists and hasn't expired; the ticket is gone either way. */
+    public Optional<Long> redeem(String ticket) {
+        if (ticket == null || ticket.isBlank()) return Optional.empty();
+        List<Long> ids = jdbc.queryForList(
+                "delete from stream_tickets where ticket_hash = ? returning case when expires_at > ? then user_id end",
+                Long.class, hash(ticket), Timestamp.valueOf(LocalDateTime.now()));
+        return ids.isEmpty() ? Optional.empty() : Optional.ofNullable(ids.get(0));
+    }
+
+    public long ttlMs() { return ttlMs; }
+
+    @Scheduled(fixedDelayString = "${app.alerts.stream.ticket-purge-ms:300000}")
+    public void purgeExpired() {
+        int n = jdbc.update("delete from stream_tickets where expires_at <= ?", Timestamp.valueOf(LocalDateTime.now()));
+        if (n > 0) log.debug("[ALERT-STREAM] purged {} expired stream tickets", n);
+    }
+
+    private static String hash(String ticket) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(ticket.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.fintrack.service;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * LISTENs on {@link AlertStreamService#NOTIFY_CHANNEL} so alert and unread changes written on any
+ * replica reach the SSE clients connected to this one. Uses a connection of its own (outside the
+ * pool, it is held for good) on a daemon thread, reconnecting with backoff; after every (re)connect
+ * the connected users' counts are re-sent, covering whatever was announced while we weren't listening.
+ */
+@Component
+@ConditionalOnProperty(name = "app.alerts.stream.fanout", havingValue = "postgres", matchIfMissing = true)
+public class AlertNotifyListener {
+    private static final Logger log = LoggerFactory.getLogger(AlertNotifyListener.class);
+
+    private final AlertStreamService stream;
+    private final DataSourceProperties db;
+    private final long pollMs;
+    private volatile boolean running;
+    private volatile Connection con;
+    private Thread thread;
+
+    public AlertNotifyListener(AlertStreamService stream, DataSourceProperties db,
+                               @Value("${app.alerts.stream.notify-poll-ms:5000}") long pollMs) {
+        this.stream = stream; this.db = db; this.pollMs = pollMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        thread = new Thread(this::listen, "alert-notify");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) thread.interrupt();
+        close();
+    }
+
+    private void listen() {
+        long backoff = 1000;
+        while (running) {
+            try {
+                con = DriverManager.getConnection(db.determineUrl(), db.determineUsername(), db.determinePassword());
+                try (Statement st = con.createStatement()) {
+                    st.execute("LISTEN " + AlertStreamService.NOTIFY_CHANNEL);
+                }
+                PGConnection pg = con.unwrap(PGConnection.class);
+                log.info("[ALERT-STREAM] listening for alert changes from all replicas");
+                backoff = 1000;
+                stream.resync();
+                while (running) {
+                    PGNotification[] batch = pg.getNotifications((int) pollMs);
+                    if (batch == null) continue;
+                    for (PGNotification n : batch) {
+                        try {
+                            stream.deliver(n.getParameter());
+                        } catch (RuntimeException e) {
+                            log.warn("[ALERT-STREAM] could not deliver {}: {}", n.getParameter(), e.toString());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("[ALERT-STREAM] notify listener lost its connection, retrying in {}ms: {}", backoff, e.toString());
+                close();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, 30_000);
+            }
+        }
+    }
+
+    private void close() {
+        Connection c = con;
+        con = null;
+        if (c == null) return;
+        try { c.close(); } catch (SQLException ignored) { }
+    }
+}
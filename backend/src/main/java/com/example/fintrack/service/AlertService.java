@@ -1,36 +1,83 @@
 package com.example.fintrack.service;
 
+import com.example.fintrack.ml.AnomalyResult;
+import com.example.fintrack.ml.LocalAnomalyDetector;
+import com.example.fintrack.ml.RemoteAnomalyDetector;
 import com.example.fintrack.model.Alert;
 import com.example.fintrack.model.Transaction;
+import com.example.fintrack.model.User;
 import com.example.fintrack.model.Category; // <-- keep the enum your Transaction actually uses
 import com.example.fintrack.repository.AlertRepository;
 import com.example.fintrack.repository.TransactionRepository;
 import org.slf4j.Logger; import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestClient;
 
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 @Service
 public class AlertService {
     private static final Logger log = LoggerFactory.getLogger(AlertService.class);
 
+    /** Open anomaly alert of this (user, category) to merge into; only rows that track their members. */
+    private static final String OPEN_ALERT = """
+            select a.id from alerts a
+            where a.user_id = ? and a.type = 'ANOMALY' and a.category = ? and a.created_at > ?
+              and exists (select 1 from alert_occurrences o where o.alert_id = a.id)
+            order by a.created_at desc limit 1
+            """;
+
+    private static final String ADD_MEMBER = """
+            insert into alert_occurrences (tx_id, alert_id, amount, tx_date, typical_amount)
+            values (?, ?, ?, ?, ?) on conflict (tx_id) do nothing
+            """;
+
+    private static final String MEMBER_STATS = """
+            select count(*) as n, min(amount) as lo, max(amount) as hi, min(tx_date) as since,
+                   (array_agg(typical_amount order by tx_date desc, tx_id desc))[1] as typical,
+                   (array_agg(tx_id order by tx_date, tx_id))[1] as first_tx
+            from alert_occurrences where alert_id = ?
+            """;
+
+    /** Aggregates written back from the member rows; severity only ever goes up, a merge makes it unread again. */
+    private static final String REWRITE = """
+            update alerts set occurrences = ?, min_amount = ?, max_amount = ?, message = ?, tx_id = ?,
+                   severity = case when cast(? as varchar) = 'HIGH' then 'HIGH' else severity end,
+                   read_flag = read_flag and not ?
+            where id = ?
+            """;
+
+    private record Stats(int n, BigDecimal lo, BigDecimal hi, LocalDate since, BigDecimal typical, Long firstTx) {}
+
     private final AlertRepository alerts;
     private final TransactionRepository txRepo;
-    private final RestClient rest;
-    private final String mlBase;
+    private final LocalAnomalyDetector localDetector;
+    private final RemoteAnomalyDetector remoteDetector;
+    private final AlertStreamService stream;
+    private final JdbcTemplate jdbc;
+    private final String engine;
+    private final long coalesceWindowMs;
 
     public AlertService(AlertRepository alerts,
                         TransactionRepository txRepo,
-                        RestClient rest,
-                        @Value("${app.ml.base-url:http://localhost:8001}") String mlBase) {
-        this.alerts = alerts; this.txRepo = txRepo; this.rest = rest; this.mlBase = mlBase;
+                        LocalAnomalyDetector localDetector,
+                        RemoteAnomalyDetector remoteDetector,
+                        AlertStreamService stream,
+                        JdbcTemplate jdbc,
+                        @Value("${app.anomaly.engine:remote}") String engine,
+                        @Value("${app.alerts.coalesce.window-ms:600000}") long coalesceWindowMs) {
+        this.alerts = alerts; this.txRepo = txRepo;
+        this.localDetector = localDetector; this.remoteDetector = remoteDetector;
+        this.stream = stream; this.jdbc = jdbc; this.engine = engine; this.coalesceWindowMs = coalesceWindowMs;
     }
 
     @Transactional
@@ -40,65 +87,153 @@ public class AlertService {
 
         try {
             LocalDate start = tx.getDate().minusMonths(12);
-            List<Double> hist = txRepo
+            double[] hist = txRepo
                     .findByUserAndCategoryAndDateBetween(
                             tx.getUser(), tx.getCategory(), start, tx.getDate().minusDays(1))
-                    .stream().map(t -> t.getAmount().doubleValue()).toList();
+                    .stream().mapToDouble(t -> t.getAmount().doubleValue()).toArray();
 
             double x = tx.getAmount().doubleValue();
             log.info("[ALERT] txId={} cat={} amount={} historyCount={}",
-                    tx.getId(), tx.getCategory(), x, hist.size());
-
-            boolean anomaly = false;
-
-            // ---- ML check (best-effort) ----
-            try {
-                Map<String,Object> req = Map.of("history", hist, "candidate", x);
-                Map<?,?> body = rest.post()
-                        .uri(mlBase + "/anomaly/expense")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .body(req)
-                        .retrieve()
-                        .toEntity(Map.class)
-                        .getBody();
-                if (body != null) {
-                    Object ia = body.get("is_anomaly");
-                    Object sc = body.get("score");
-                    Object mt = body.get("method");
-                    log.info("[ALERT] ML response is_anomaly={} score={} method={}", ia, sc, mt);
-                    anomaly = Boolean.TRUE.equals(ia);
+                    tx.getId(), tx.getCategory(), x, hist.length);
+
+            // ---- detector: ML service by default, in-process port if configured or the call fails ----
+            AnomalyResult result = null;
+            if ("remote".equalsIgnoreCase(engine)) {
+                try {
+                    result = remoteDetector.score(hist, x);
+                } catch (Exception e) {
+                    log.warn("[ALERT] ML call failed, using local detector: {}", e.toString());
                 }
-            } catch (Exception e) {
-                log.warn("[ALERT] ML call failed: {}", e.toString());
             }
+            if (result == null) {
+                String window = tx.getUser().getId() + ":" + tx.getCategory() + ":" + start;
+                result = localDetector.score(window, hist, x);
+            }
+            log.info("[ALERT] detector is_anomaly={} score={} method={}",
+                    result.anomaly(), result.score(), result.method());
+            boolean anomaly = result.anomaly();
 
             // ---- deterministic fallback ----
             double median = 0.0;
-            if (!hist.isEmpty()) {
-                var s = new ArrayList<>(hist);
-                s.sort(Double::compareTo);
-                median = s.get(s.size()/2);
+            if (hist.length > 0) {
+                double[] s = hist.clone();
+                Arrays.sort(s);
+                median = s[s.length/2];
             }
             if (!anomaly) {
-                if (hist.size() >= 3 && x > 1.8 * median) anomaly = true;
-                else if (hist.size() < 3 && x >= 5000)   anomaly = true; // demo-friendly
+                if (hist.length >= 3 && x > 1.8 * median) anomaly = true;
+                else if (hist.length < 3 && x >= 5000)   anomaly = true; // demo-friendly
             }
 
             if (anomaly) {
+                var severity = (median > 0 && x > 2.5 * median) ? Alert.Severity.HIGH : Alert.Severity.MEDIUM;
+                if (coalesceWindowMs > 0 && mergeIntoOpenAlert(tx, median, severity)) return;
+
                 Alert a = new Alert();
                 a.setUser(tx.getUser());
                 a.setType("ANOMALY");
-                a.setSeverity((median > 0 && x > 2.5 * median) ? Alert.Severity.HIGH : Alert.Severity.MEDIUM);
+                a.setSeverity(severity);
                 a.setTitle("Unusual " + tx.getCategory() + " spend");
                 a.setMessage(String.format("₹%.0f on %s vs typical ₹%.0f", x, tx.getDate(), median));
                 a.setTxId(tx.getId());
+                a.setCategory(tx.getCategory().name());
+                a.setMinAmount(tx.getAmount());
+                a.setMaxAmount(tx.getAmount());
                 alerts.save(a);
+                addMember(a.getId(), tx, median);
+                stream.alertCreated(a);
                 log.info("[ALERT] created id={} for txId={}", a.getId(), tx.getId());
             } else {
-                log.info("[ALERT] no alert (amount={} median={} size={})", x, median, hist.size());
+                log.info("[ALERT] no alert (amount={} median={} size={})", x, median, hist.length);
             }
         } catch (Exception e) {
             log.error("[ALERT] maybeCreateAnomaly failed", e);
         }
     }
+
+    /** A budget just reached {@code pct}% of its limit; joins the caller's transaction, pushed after commit. */
+    public void budgetThreshold(User user, YearMonth ym, Category category, int pct, BigDecimal spent, BigDecimal limit) {
+        Alert a = new Alert();
+        a.setUser(user);
+        a.setType("BUDGET");
+        a.setSeverity(pct >= 100 ? Alert.Severity.HIGH : Alert.Severity.MEDIUM);
+        a.setTitle(category + " budget " + (pct >= 100 ? "exceeded" : pct + "% used"));
+        a.setMessage(String.format("₹%.0f of ₹%.0f spent in %s", spent, limit, ym));
+        a.setCategory(category.name());
+        a.setMinAmount(spent);
+        a.setMaxAmount(spent);
+        alerts.save(a);
+        stream.alertCreated(a);
+        log.info("[ALERT] budget {} {} reached {}% for user {}", ym, category, pct, user.getId());
+    }
+
+    /* ---------------- coalescing ---------------- */
+
+    /**
+     * Add {@code tx} to the (user, category) anomaly alert opened within the coalescing window, if
+     * any. Runs in the caller's transaction under an advisory lock per (user, category), so a
+     * rollback leaves the alert as it was and two concurrent anomalies can't both open a row.
+     */
+    private boolean mergeIntoOpenAlert(Transaction tx, double typical, Alert.Severity severity) {
+        Long userId = tx.getUser().getId();
+        String category = tx.getCategory().name();
+        jdbc.query("select pg_advisory_xact_lock(?)", rs -> null, ((long) category.hashCode() << 32) ^ userId);
+        List<Long> open = jdbc.queryForList(OPEN_ALERT, Long.class, userId, category,
+                Timestamp.valueOf(LocalDateTime.now().minusNanos(coalesceWindowMs * 1_000_000)));
+        if (open.isEmpty()) return false;
+
+        Long id = open.get(0);
+        addMember(id, tx, typical);
+        rewrite(id, category, severity, true);
+        alerts.findById(id).ifPresent(stream::alertUpdated);
+        log.info("[ALERT] coalesced txId={} into alert {}", tx.getId(), id);
+        return true;
+    }
+
+    private void addMember(Long alertId, Transaction tx, double typical) {
+        jdbc.update(ADD_MEMBER, tx.getId(), alertId, tx.getAmount(), Date.valueOf(tx.getDate()), BigDecimal.valueOf(typical));
+    }
+
+    /** Recompute the alert's count, range and message from its members; returns how many are left. */
+    private int rewrite(Long alertId, String category, Alert.Severity severity, boolean unreadAgain) {
+        Stats st = jdbc.queryForObject(MEMBER_STATS, (rs, i) -> new Stats(rs.getInt("n"), rs.getBigDecimal("lo"),
+                rs.getBigDecimal("hi"), rs.getObject("since", LocalDate.class), rs.getBigDecimal("typical"),
+                rs.getObject("first_tx", Long.class)), alertId);
+        if (st == null || st.n() == 0) return 0;
+        double typical = st.typical() != null ? st.typical().doubleValue() : 0.0;
+        String msg = st.n() == 1
+                ? String.format("₹%.0f on %s vs typical ₹%.0f", st.hi(), st.since(), typical)
+                : String.format("%d unusual %s spends since %s, ₹%.0f–₹%.0f vs typical ₹%.0f",
+                        st.n(), category, st.since(), st.lo(), st.hi(), typical);
+        jdbc.update(REWRITE, st.n(), st.lo(), st.hi(), msg, st.firstTx(),
+                severity != null ? severity.name() : null, unreadAgain, alertId);
+        return st.n();
+    }
+
+    /**
+     * A transaction was deleted: take it out of the anomaly alert it belongs to. The alert goes
+     * when its last member does; otherwise its count and range shrink (it stays read if it was).
+     * Alerts without member rows (budget, or written before members were tracked) go with their tx.
+     */
+    @Transactional
+    public void transactionDeleted(User u, Long txId) {
+        List<Long> owner = jdbc.queryForList("""
+                delete from alert_occurrences o using alerts a
+                where o.tx_id = ? and a.id = o.alert_id and a.user_id = ?
+                returning o.alert_id
+                """, Long.class, txId, u.getId());
+        if (owner.isEmpty()) {
+            if (alerts.deleteByTxIdAndUser(txId, u) > 0) stream.refreshUnread(u);
+            return;
+        }
+        Long id = owner.get(0);
+        Alert a = alerts.findById(id).orElse(null);
+        if (a == null) return;
+        if (rewrite(id, a.getCategory(), null, false) == 0) {
+            alerts.delete(a);
+            stream.refreshUnread(u);
+        } else {
+            stream.alertUpdated(a);
+        }
+    }
 }
@@ -0,0 +1,233 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.dto.AlertDtos.AlertView;
+import com.example.fintrack.model.Alert;
+import com.example.fintrack.model.User;
+import com.example.fintrack.repository.AlertRepository;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user SSE channels for alerts. Pushes "alert" events for new alerts and "unread"
+ * events whenever the unread count changes. Counts always come from
+ * {@link AlertRepository#countUnread} (indexed), so they stay right whichever replica wrote
+ * the alerts; channels only exist while a client is connected or recently was (for replay).
+ *
+ * <p>A change is announced with {@code pg_notify} in the writing transaction (Postgres delivers it
+ * on commit, to every replica); {@link AlertNotifyListener} hands it to {@link #deliver} on each
+ * replica, which pushes to whatever clients that replica holds. {@code app.alerts.stream.fanout=local}
+ * delivers in-process instead, for a single node.
+ */
+@Service
+public class AlertStreamService {
+    private static final Logger log = LoggerFactory.getLogger(AlertStreamService.class);
+
+    /** How many recent alert events we keep per user for Last-Event-ID replay. */
+    private static final int REPLAY_BUFFER = 50;
+
+    /** Postgres NOTIFY channel; payloads are "a:{userId}:{alertId}" or "u:{userId}". */
+    static final String NOTIFY_CHANNEL = "alert_stream";
+
+    private final AlertRepository alerts;
+    private final JdbcTemplate jdbc;
+    private final boolean fanoutPostgres;
+    private final long timeoutMs;
+    private final long idleEvictMs;
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    public AlertStreamService(AlertRepository alerts, JdbcTemplate jdbc,
+                              @Value("${app.alerts.stream.fanout:postgres}") String fanout,
+                              @Value("${app.alerts.stream.timeout-ms:1800000}") long timeoutMs,
+                              @Value("${app.alerts.stream.idle-evict-ms:600000}") long idleEvictMs) {
+        this.alerts = alerts; this.jdbc = jdbc; this.timeoutMs = timeoutMs; this.idleEvictMs = idleEvictMs;
+        this.fanoutPostgres = !"local".equalsIgnoreCase(fanout);
+    }
+
+    private record Event(long id, AlertView alert) {}
+
+    private static final class Channel {
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        // ids are time-based so they keep increasing across restarts (Last-Event-ID stays meaningful)
+        final AtomicLong seq = new AtomicLong(System.currentTimeMillis() * 1000);
+        final Deque<Event> recent = new ArrayDeque<>();   // guarded by itself
+        volatile long lastActive = System.currentTimeMillis();
+
+        void remove(SseEmitter emitter) {
+            emitters.remove(emitter);
+            lastActive = System.currentTimeMillis();
+        }
+    }
+
+    /* ---------------- subscribe ---------------- */
+
+    public SseEmitter subscribe(User u, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        // added inside compute so eviction (also per-key atomic) can't drop the channel under us
+        Channel ch = channels.compute(u.getId(), (k, c) -> {
+            if (c == null) c = new Channel();
+            c.emitters.add(emitter);
+            c.lastActive = System.currentTimeMillis();
+            return c;
+        });
+        emitter.onCompletion(() -> ch.remove(emitter));
+        emitter.onTimeout(() -> ch.remove(emitter));
+        emitter.onError(e -> ch.remove(emitter));
+
+        try {
+            // current count first, then whatever alerts the client missed while disconnected
+            emitter.send(unreadEvent(unreadCount(u)));
+            long last = parseId(lastEventId);
+            if (last > 0) {
+                List<Event> missed = new ArrayList<>();
+                synchronized (ch.recent) {
+                    for (Event e : ch.recent) if (e.id() > last) missed.add(e);
+                }
+                for (Event e : missed) emitter.send(alertEvent(e));
+            }
+        } catch (IOException e) {
+            ch.remove(emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /* ---------------- counters ---------------- */
+
+    public long unreadCount(User u) {
+        return alerts.countUnread(u);
+    }
+
+    /** Called after an alert row is inserted; pushed (on every replica) once the surrounding transaction commits. */
+    public void alertCreated(Alert a) {
+        pushAlert(a);
+    }
+
+    /** A coalesced alert absorbed more occurrences and is unread again: re-push it and the count. */
+    public void alertUpdated(Alert a) {
+        pushAlert(a);
+    }
+
+    /** Called after {@code n} unread alerts were flagged read. */
+    public void alertsRead(User u, long n) {
+        if (n <= 0) return;
+        refreshUnread(u);
+    }
+
+    /** Push a freshly counted unread total (e.g. after alerts were deleted). */
+    public void refreshUnread(User u) {
+        announce("u:" + u.getId());
+    }
+
+    private void pushAlert(Alert a) {
+        announce("a:" + a.getUser().getId() + ":" + a.getId());
+    }
+
+    private void announce(String payload) {
+        if (fanoutPostgres) {
+            // transactional: listeners (this replica included) hear it only if and when we commit
+            jdbc.query("select pg_notify(?, ?)", rs -> null, NOTIFY_CHANNEL, payload);
+        } else {
+            afterCommit(() -> deliver(payload));
+        }
+    }
+
+    /** Push an announced change to this replica's clients of that user, if it has any. */
+    public void deliver(String payload) {
+        String[] parts = payload.split(":");
+        Long userId = Long.valueOf(parts[1]);
+        Channel ch = channels.get(userId);
+        if (ch == null) return; // nobody listening here, nothing to replay to
+        if (parts[0].equals("a")) {
+            Alert a = alerts.findById(Long.valueOf(parts[2])).orElse(null);
+            if (a == null) return; // deleted since
+            Event e = new Event(ch.seq.incrementAndGet(), AlertView.of(a));
+            synchronized (ch.recent) {
+                ch.recent.addLast(e);
+                if (ch.recent.size() > REPLAY_BUFFER) ch.recent.removeFirst();
+            }
+            if (!ch.emitters.isEmpty()) broadcast(ch, alertEvent(e));
+        }
+        if (!ch.emitters.isEmpty()) broadcast(ch, unreadEvent(alerts.countUnreadByUserId(userId)));
+    }
+
+    /** Re-send every connected user's count; after the listener reconnects, notifications may have been missed. */
+    public void resync() {
+        for (var e : channels.entrySet()) {
+            Channel ch = e.getValue();
+            if (!ch.emitters.isEmpty()) broadcast(ch, unreadEvent(alerts.countUnreadByUserId(e.getKey())));
+        }
+    }
+
+    /* ---------------- heartbeat ---------------- */
+
+    @Scheduled(fixedDelayString = "${app.alerts.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (var e : channels.entrySet()) {
+            Channel ch = e.getValue();
+            if (ch.emitters.isEmpty()) {
+                // idle long enough that a reconnect can't need the replay buffer any more
+                channels.computeIfPresent(e.getKey(), (k, c) ->
+                        c.emitters.isEmpty() && now - c.lastActive > idleEvictMs ? null : c);
+                continue;
+            }
+            broadcast(ch, SseEmitter.event().comment("hb"));
+        }
+    }
+
+    /* ---------------- helpers ---------------- */
+
+    private void broadcast(Channel ch, SseEmitter.SseEventBuilder event) {
+        for (SseEmitter emitter : ch.emitters) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // client went away; the emitter callbacks may not fire for a half-closed socket
+                ch.remove(emitter);
+                log.debug("[ALERT-STREAM] dropping emitter: {}", e.toString());
+            }
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder alertEvent(Event e) {
+        return SseEmitter.event().id(String.valueOf(e.id())).name("alert")
+                .data(e.alert(), MediaType.APPLICATION_JSON);
+    }
+
+    private static SseEmitter.SseEventBuilder unreadEvent(long count) {
+        // no id: replay is driven by alert ids only, the count is always re-sent on connect
+        return SseEmitter.event().name("unread").data(Map.of("count", count), MediaType.APPLICATION_JSON);
+    }
+
+    private static long parseId(String id) {
+        if (id == null || id.isBlank()) return 0;
+        try { return Long.parseLong(id.trim()); } catch (NumberFormatException e) { return 0; }
+    }
+
+    private static void afterCommit(Runnable r) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { r.run(); }
+            });
+        } else {
+            r.run();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.events.BillScheduleChangedEvent;
+import com.example.fintrack.model.Bill;
+import com.example.fintrack.model.Category;
+import com.example.fintrack.model.Transaction;
+import com.example.fintrack.repository.BillOccurrenceRepository;
+import com.example.fintrack.repository.BillRepository;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Links expense transactions to the bill occurrence they paid. Each user's expected occurrences
+ * (from the bills' recurrences) sit in an index sorted by due day, so a transaction's candidates
+ * are a binary search plus a scan of its tolerance window. A match marks the occurrence paid and
+ * moves the bill's next reminder past it.
+ */
+@Service
+public class BillMatcher {
+    private static final Logger log = LoggerFactory.getLogger(BillMatcher.class);
+
+    /**
+     * Upsert so occurrences outside the materialized range (old imports) can be marked too; a
+     * transaction already paying another occurrence is left alone (uk_bill_occurrences_paid_tx backs this up).
+     */
+    private static final String MARK_PAID = """
+            insert into bill_occurrences (bill_id, user_id, due_date, amount, paid_tx_id)
+            select ?, ?, ?, ?, ? where not exists (select 1 from bill_occurrences where paid_tx_id = ?)
+            on conflict (bill_id, due_date) do update set paid_tx_id = excluded.paid_tx_id
+            where bill_occurrences.paid_tx_id is null
+            """;
+
+    private final BillRepository bills;
+    private final BillOccurrenceRepository occurrences;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher appEvents;
+    private final int earlyDays;
+    private final int lateDays;
+    private final BigDecimal tolerance;
+    private final int windowDays;
+    private final int maxUsers;
+
+    private final LinkedHashMap<Long, Index> cache; // guarded by itself
+
+    public BillMatcher(BillRepository bills, BillOccurrenceRepository occurrences, JdbcTemplate jdbc,
+                       TransactionTemplate tx, ApplicationEventPublisher appEvents,
+                       @Value("${app.bills.match.early-days:7}") int earlyDays,
+                       @Value("${app.bills.match.late-days:5}") int lateDays,
+                       @Value("${app.bills.match.amount-tolerance:0.05}") BigDecimal tolerance,
+                       @Value("${app.bills.match.window-days:45}") int windowDays,
+                       @Value("${app.bills.match.cache-users:10000}") int maxUsers) {
+        this.bills = bills; this.occurrences = occurrences; this.jdbc = jdbc; this.tx = tx; this.appEvents = appEvents;
+        this.earlyDays = earlyDays; this.lateDays = lateDays; this.tolerance = tolerance;
+        this.windowDays = windowDays; this.maxUsers = maxUsers;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<Long, Index> eldest) {
+                return size() > BillMatcher.this.maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Expected occurrences with due day in [from, to], sorted by day; parallel arrays so a lookup
+     * allocates nothing. Mutable {@code paid} flags are guarded by the index.
+     */
+    private static final class Index {
+        final long from, to;
+        final long[] due, cents, billIds;
+        final Category[] categories;
+        final boolean[] paid;
+        final Set<Long> paidTxIds; // transactions already matched to an occurrence in [from, to]
+
+        Index(long from, long to, int n, Set<Long> paidTxIds) {
+            this.from = from; this.to = to; this.paidTxIds = paidTxIds;
+            due = new long[n]; cents = new long[n]; billIds = new long[n];
+            categories = new Category[n]; paid = new boolean[n];
+        }
+
+        /** First slot with due >= day. */
+        int lowerBound(long day) {
+            int lo = 0, hi = due.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (due[mid] < day) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    private record Match(long billId, long due, long cents, long txId) {}
+
+    /** Match one new transaction; failures are logged, never thrown at the caller. */
+    public void match(Transaction t) {
+        if (t.getCategory() == Category.INCOME) return;
+        Long userId = t.getUser().getId();
+        try {
+            long day = t.getDate().toEpochDay();
+            Index idx = cached(userId);
+            if (day - lateDays < idx.from || day + earlyDays > idx.to) idx = build(userId, day - lateDays, day + earlyDays);
+            Match m;
+            synchronized (idx) {
+                m = take(idx, t);
+            }
+            if (m != null) apply(userId, List.of(m));
+        } catch (Exception e) {
+            log.warn("[BILLS] match failed for tx {}: {}", t.getId(), e.toString());
+        }
+    }
+
+    /** One pass over a batch (e.g. an import): one index for the whole date range, one write transaction. */
+    public int reconcile(Long userId, List<Transaction> txs) {
+        List<Transaction> expenses = txs.stream()
+                .filter(t -> t.getCategory() != Category.INCOME)
+                .sorted(Comparator.comparing(Transaction::getDate))
+                .toList();
+        if (expenses.isEmpty()) return 0;
+        try {
+            long first = expenses.get(0).getDate().toEpochDay();
+            long last = expenses.get(expenses.size() - 1).getDate().toEpochDay();
+            Index idx = build(userId, first - lateDays, last + earlyDays);
+            List<Match> matches = new ArrayList<>();
+            for (Transaction t : expenses) {
+                if (idx.paidTxIds.contains(t.getId())) continue; // matched by an earlier run
+                Match m = take(idx, t);
+                if (m != null) matches.add(m);
+            }
+            if (!matches.isEmpty()) apply(userId, matches);
+            log.info("[BILLS] reconciled user {}: {} of {} transactions matched", userId, matches.size(), expenses.size());
+            return matches.size();
+        } catch (Exception e) {
+            log.warn("[BILLS] reconcile failed for user {}: {}", userId, e.toString());
+            return 0;
+        }
+    }
+
+    /**
+     * The transaction is gone: its occurrence goes back to unpaid, and the bill's reminder marker,
+     * which {@link #apply} moved past that occurrence, is pulled back to the later of the day before
+     * it and the bill's latest still-paid occurrence (never forward), so the occurrence is reminded again.
+     */
+    public void unmatch(Long userId, Long txId) {
+        try {
+            tx.executeWithoutResult(s -> {
+                List<Map<String, Object>> cleared = jdbc.queryForList(
+                        "update bill_occurrences set paid_tx_id = null where paid_tx_id = ? returning bill_id, due_date", txId);
+                if (cleared.isEmpty()) return;
+                LocalDate today = LocalDate.now();
+                for (var row : cleared) {
+                    Long billId = ((Number) row.get("bill_id")).longValue();
+                    LocalDate unpaid = ((Date) row.get("due_date")).toLocalDate();
+                    Bill b = bills.findById(billId).orElse(null);
+                    LocalDate through = b == null ? null : b.notifiedThrough();
+                    if (through == null || through.isBefore(unpaid)) continue; // never skipped
+                    Date lastPaid = jdbc.queryForObject(
+                            "select max(due_date) from bill_occurrences where bill_id = ? and paid_tx_id is not null and due_date <= ?",
+                            Date.class, billId, Date.valueOf(through));
+                    LocalDate back = unpaid.minusDays(1);
+                    if (lastPaid != null && lastPaid.toLocalDate().isAfter(back)) back = lastPaid.toLocalDate();
+                    b.setLastNotifiedDue(back);
+                    b.refreshNextNotifyDate(today);
+                }
+                appEvents.publishEvent(new BillScheduleChangedEvent(userId));
+            });
+            invalidate(userId);
+        } catch (Exception e) {
+            log.warn("[BILLS] unmatch failed for tx {}: {}", txId, e.toString());
+        }
+    }
+
+    @EventListener
+    public void onBillScheduleChanged(BillScheduleChangedEvent e) {
+        invalidate(e.userId());
+    }
+
+    /**
+     * Closest unpaid occurrence of the same category, due from lateDays before to earlyDays after the
+     * transaction date, with amount within tolerance; nearest date wins, then nearest amount.
+     */
+    private Match take(Index idx, Transaction t) {
+        long day = t.getDate().toEpochDay();
+        long cents = toCents(t.getAmount());
+        int best = -1;
+        long bestDays = Long.MAX_VALUE, bestDiff = Long.MAX_VALUE;
+        for (int i = idx.lowerBound(day - lateDays); i < idx.due.length && idx.due[i] <= day + earlyDays; i++) {
+            if (idx.paid[i] || idx.categories[i] != t.getCategory()) continue;
+            long diff = Math.abs(idx.cents[i] - cents);
+            if (diff > allowed(idx.cents[i])) continue;
+            long days = Math.abs(idx.due[i] - day);
+            if (days < bestDays || (days == bestDays && diff < bestDiff)) {
+                best = i; bestDays = days; bestDiff = diff;
+            }
+        }
+        if (best < 0) return null;
+        idx.paid[best] = true;
+        return new Match(idx.billIds[best], idx.due[best], idx.cents[best], t.getId());
+    }
+
+    private long allowed(long expectedCents) {
+        return new BigDecimal(expectedCents).multiply(tolerance).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    /** Mark the occurrences paid and skip reminders through the latest paid due date of each bill. */
+    private void apply(Long userId, List<Match> matches) {
+        Map<Long, Long> paidThrough = new HashMap<>();
+        tx.executeWithoutResult(s -> {
+            List<Object[]> rows = new ArrayList<>(matches.size());
+            for (Match m : matches) {
+                rows.add(new Object[]{m.billId(), userId, Date.valueOf(LocalDate.ofEpochDay(m.due())),
+                        BigDecimal.valueOf(m.cents(), 2), m.txId(), m.txId()});
+            }
+            int[] updated = jdbc.batchUpdate(MARK_PAID, rows);
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] != 0) paidThrough.merge(matches.get(i).billId(), matches.get(i).due(), Math::max);
+            }
+            LocalDate today = LocalDate.now();
+            for (Bill b : bills.findAllById(paidThrough.keySet())) {
+                LocalDate due = LocalDate.ofEpochDay(paidThrough.get(b.getId()));
+                LocalDate through = b.notifiedThrough();
+                if (through != null && !through.isBefore(due)) continue;
+                b.setLastNotifiedDue(due);
+                b.refreshNextNotifyDate(today);
+            }
+            if (!paidThrough.isEmpty()) appEvents.publishEvent(new BillScheduleChangedEvent(userId));
+        });
+        if (paidThrough.isEmpty()) invalidate(userId); // lost to a concurrent match; reload the truth
+    }
+
+    private Index cached(Long userId) {
+        synchronized (cache) {
+            Index idx = cache.get(userId);
+            if (idx != null) return idx;
+        }
+        long today = LocalDate.now().toEpochDay();
+        Index idx = build(userId, today - windowDays, today + windowDays);
+        synchronized (cache) {
+            cache.putIfAbsent(userId, idx);
+            return cache.get(userId);
+        }
+    }
+
+    private void invalidate(Long userId) {
+        synchronized (cache) {
+            cache.remove(userId);
+        }
+    }
+
+    /** Expand every active bill over [from, to] and drop occurrences already paid. */
+    private Index build(Long userId, long from, long to) {
+        LocalDate start = LocalDate.ofEpochDay(from), end = LocalDate.ofEpochDay(to);
+        Set<String> paid = new HashSet<>();
+        Set<Long> paidTxIds = new HashSet<>();
+        for (var o : occurrences.findByUserIdAndDueDateBetweenAndPaidTxIdIsNotNull(userId, start, end)) {
+            paid.add(o.getBillId() + ":" + o.getDueDate().toEpochDay());
+            paidTxIds.add(o.getPaidTxId());
+        }
+        record Slot(long due, Bill bill) {}
+        List<Slot> slots = new ArrayList<>();
+        for (Bill b : bills.findByUserIdAndActiveTrue(userId)) {
+            var c = b.recurrence().cursor(start);
+            for (long d = c.next(); d <= to; d = c.next()) {
+                if (!paid.contains(b.getId() + ":" + d)) slots.add(new Slot(d, b));
+            }
+        }
+        slots.sort(Comparator.comparingLong(Slot::due));
+        Index idx = new Index(from, to, slots.size(), paidTxIds);
+        for (int i = 0; i < slots.size(); i++) {
+            Bill b = slots.get(i).bill();
+            idx.due[i] = slots.get(i).due();
+            idx.cents[i] = toCents(b.getAmount());
+            idx.billIds[i] = b.getId();
+            idx.categories[i] = b.getCategory();
+        }
+        return idx;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.model.Bill;
+import com.example.fintrack.model.Recurrence;
+import com.example.fintrack.model.User;
+import com.example.fintrack.repository.BillOccurrenceRepository;
+import com.example.fintrack.repository.BillRepository;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Bill due dates, two ways: the next {@code count} occurrences of every active bill are kept in
+ * bill_occurrences (indexed by user and date) for cheap "what's due" lookups, while calendar and
+ * cash-flow views over any horizon walk {@link Recurrence.Cursor}s directly instead of building
+ * per-bill date lists.
+ */
+@Service
+public class BillOccurrenceService {
+    private static final Logger log = LoggerFactory.getLogger(BillOccurrenceService.class);
+
+    private static final String INSERT = """
+            insert into bill_occurrences (bill_id, user_id, due_date, amount) values (?, ?, ?, ?)
+            on conflict (bill_id, due_date) do nothing
+            """;
+
+    private final BillRepository bills;
+    private final BillOccurrenceRepository occurrences;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final int count;
+    private final int refillDays;
+    private final int pageSize;
+
+    public BillOccurrenceService(BillRepository bills, BillOccurrenceRepository occurrences,
+                                 JdbcTemplate jdbc, TransactionTemplate tx,
+                                 @Value("${app.bills.occurrences.count:12}") int count,
+                                 @Value("${app.bills.occurrences.refill-days:31}") int refillDays,
+                                 @Value("${app.bills.page-size:500}") int pageSize) {
+        this.bills = bills; this.occurrences = occurrences; this.jdbc = jdbc; this.tx = tx;
+        this.count = Math.max(1, count); this.refillDays = refillDays; this.pageSize = pageSize;
+    }
+
+    public record CalendarEntry(Long billId, String name, String category, BigDecimal amount, LocalDate dueDate,
+                                boolean paid) {}
+    public record CashflowMonth(String ym, BigDecimal total, int bills) {}
+    public record Upcoming(Long billId, LocalDate dueDate, BigDecimal amount, boolean paid) {}
+
+    /** Replace the bill's occurrences from {@code from} on after a schedule change; joins the caller's transaction. */
+    @Transactional
+    public void rematerialize(Bill b, LocalDate from) {
+        occurrences.deleteFrom(b.getId(), from);
+        if (!b.isActive()) {
+            b.setOccurrencesThrough(null);
+            return;
+        }
+        insert(b, b.recurrence().cursor(from), count);
+    }
+
+    @Transactional
+    public void deleteForBill(Long billId) {
+        occurrences.deleteForBill(billId);
+    }
+
+    @Scheduled(cron = "${app.bills.occurrences.cron:0 20 0 * * *}")
+    public void topUp() {
+        int n = topUp(LocalDate.now());
+        if (n > 0) log.info("[BILLS] topped up occurrences for {} bills", n);
+    }
+
+    /** Extend every active bill whose materialized range ends within {@code refill-days}, a page per transaction. */
+    public int topUp(LocalDate today) {
+        LocalDate before = today.plusDays(refillDays);
+        long after = 0;
+        int[] total = {0};
+        while (true) {
+            long from = after;
+            Long last = tx.execute(s -> {
+                List<Bill> page = bills.needingOccurrences(before, from, PageRequest.of(0, pageSize));
+                for (Bill b : page) extend(b, today);
+                total[0] += page.size();
+                return page.isEmpty() ? null : page.get(page.size() - 1).getId();
+            });
+            if (last == null) return total[0];
+            after = last;
+        }
+    }
+
+    /** Upcoming occurrences straight from the materialized table. */
+    public List<Upcoming> upcoming(User u, LocalDate from, LocalDate to) {
+        return occurrences.findByUserIdAndDueDateBetweenOrderByDueDateAscBillIdAsc(u.getId(), from, to).stream()
+                .map(o -> new Upcoming(o.getBillId(), o.getDueDate(), o.getAmount(), o.getPaidTxId() != null))
+                .toList();
+    }
+
+    /**
+     * Every occurrence of the user's active bills in [from, to], ordered by date, merged from one cursor
+     * per bill; paid flags come from the (indexed) paid rows in the range.
+     */
+    public List<CalendarEntry> calendar(User u, LocalDate from, LocalDate to) {
+        final class Head {
+            final Bill bill; final Recurrence.Cursor cursor; long day;
+            Head(Bill bill, Recurrence.Cursor cursor) { this.bill = bill; this.cursor = cursor; this.day = cursor.next(); }
+        }
+        long end = to.toEpochDay();
+        PriorityQueue<Head> heads = new PriorityQueue<>(
+                Comparator.comparingLong((Head h) -> h.day).thenComparing(h -> h.bill.getId()));
+        for (Bill b : bills.findByUserAndActiveTrue(u)) {
+            Head h = new Head(b, b.recurrence().cursor(from));
+            if (h.day <= end) heads.add(h);
+        }
+        Set<PaidKey> paid = new HashSet<>();
+        for (var o : occurrences.findByUserIdAndDueDateBetweenAndPaidTxIdIsNotNull(u.getId(), from, to)) {
+            paid.add(new PaidKey(o.getBillId(), o.getDueDate().toEpochDay()));
+        }
+        List<CalendarEntry> out = new ArrayList<>();
+        for (Head h; (h = heads.poll()) != null; ) {
+            Bill b = h.bill;
+            out.add(new CalendarEntry(b.getId(), b.getName(), b.getCategory().name(), b.getAmount(),
+                    LocalDate.ofEpochDay(h.day), !paid.isEmpty() && paid.contains(new PaidKey(b.getId(), h.day))));
+            h.day = h.cursor.next();
+            if (h.day <= end) heads.add(h);
+        }
+        return out;
+    }
+
+    private record PaidKey(Long billId, long day) {}
+
+    /** Total due per month for {@code months} months from {@code from}, summed in cents without listing dates. */
+    public List<CashflowMonth> cashflow(User u, YearMonth from, int months) {
+        long[] bounds = new long[months + 1];
+        for (int i = 0; i <= months; i++) bounds[i] = from.plusMonths(i).atDay(1).toEpochDay();
+        long[] cents = new long[months];
+        int[] counts = new int[months];
+        for (Bill b : bills.findByUserAndActiveTrue(u)) {
+            long amount = b.getAmount().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            var c = b.recurrence().cursor(from.atDay(1));
+            int i = 0;
+            for (long d = c.next(); d < bounds[months]; d = c.next()) {
+                while (d >= bounds[i + 1]) i++;
+                cents[i] += amount;
+                counts[i]++;
+            }
+        }
+        List<CashflowMonth> out = new ArrayList<>(months);
+        for (int i = 0; i < months; i++) {
+            out.add(new CashflowMonth(from.plusMonths(i).toString(), BigDecimal.valueOf(cents[i], 2), counts[i]));
+        }
+        return out;
+    }
+
+    /** Keep {@code count} occurrences ahead of today: add the shortfall after the current end. */
+    private void extend(Bill b, LocalDate today) {
+        LocalDate through = b.getOccurrencesThrough();
+        if (through == null || through.isBefore(today)) {
+            insert(b, b.recurrence().cursor(today), count);
+            return;
+        }
+        var c = b.recurrence().cursor(today);
+        long end = through.toEpochDay();
+        int ahead = 0;
+        while (c.next() <= end) ahead++;
+        insert(b, b.recurrence().cursor(through.plusDays(1)), Math.max(1, count - ahead));
+    }
+
+    private void insert(Bill b, Recurrence.Cursor cursor, int n) {
+        Long userId = b.getUser().getId();
+        List<Object[]> rows = new ArrayList<>(n);
+        long day = 0;
+        for (int i = 0; i < n; i++) {
+            day = cursor.next();
+            rows.add(new Object[]{b.getId(), userId, Date.valueOf(LocalDate.ofEpochDay(day)), b.getAmount()});
+        }
+        jdbc.batchUpdate(INSERT, rows);
+        b.setOccurrencesThrough(LocalDate.ofEpochDay(day));
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.events.BillScheduleChangedEvent;
+import com.example.fintrack.job.TimingWheel;
+import com.example.fintrack.repository.BillRepository;
+import com.example.fintrack.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires bill reminders at each user's local reminder time instead of one global cron instant.
+ * Every user's next reminder instant (reminder day at {@code remind-at} in their zone, plus a
+ * stable per-user offset within {@code spread-minutes}) sits in a timing wheel; a 1s tick fires
+ * what is due. The wheel is rebuilt from next_notify_date periodically and per user when their
+ * bills change. Every replica holds the full wheel; BillService locks the due rows with SKIP
+ * LOCKED so only one of them actually sends.
+ */
+@Component
+public class BillReminderScheduler {
+    private static final Logger log = LoggerFactory.getLogger(BillReminderScheduler.class);
+
+    private final BillService billService;
+    private final BillRepository bills;
+    private final UserRepository users;
+    private final LocalTime remindAt;
+    private final long spreadMs;
+    private final long horizonMs;
+    private final ZoneId defaultZone;
+
+    private final TimingWheel<Long> wheel = new TimingWheel<>(1000, 60, System.currentTimeMillis());
+    private final Map<Long, TimingWheel.Timer<Long>> byUser = new HashMap<>();
+    private final ExecutorService firing;
+
+    public BillReminderScheduler(BillService billService, BillRepository bills, UserRepository users,
+                                 @Value("${app.bills.remind-at:09:00}") String remindAt,
+                                 @Value("${app.bills.spread-minutes:120}") long spreadMinutes,
+                                 @Value("${app.bills.horizon-hours:48}") long horizonHours,
+                                 @Value("${app.bills.default-zone:Asia/Kolkata}") String defaultZone,
+                                 @Value("${app.bills.fire-concurrency:4}") int fireConcurrency) {
+        this.billService = billService; this.bills = bills; this.users = users;
+        this.remindAt = LocalTime.parse(remindAt);
+        this.spreadMs = Duration.ofMinutes(spreadMinutes).toMillis();
+        this.horizonMs = Duration.ofHours(horizonHours).toMillis();
+        this.defaultZone = ZoneId.of(defaultZone);
+        AtomicInteger n = new AtomicInteger();
+        this.firing = Executors.newFixedThreadPool(fireConcurrency, r -> {
+            Thread t = new Thread(r, "bill-reminder-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() { firing.shutdownNow(); }
+
+    @Scheduled(fixedRate = 1000)
+    public void tick() {
+        List<Long> due;
+        synchronized (this) {
+            due = wheel.advance(System.currentTimeMillis());
+            due.forEach(byUser::remove);
+        }
+        due.forEach(userId -> firing.execute(() -> fire(userId)));
+    }
+
+    /** Load every user whose next reminder falls within the horizon; overdue ones fire now. */
+    @Scheduled(initialDelayString = "${app.bills.reload-initial-delay-ms:10000}",
+               fixedDelayString = "${app.bills.reload-ms:900000}")
+    public void reload() {
+        billService.backfillNextNotifyDates(LocalDate.now(ZoneOffset.UTC));
+        long now = System.currentTimeMillis();
+        LocalDate until = LocalDate.now(ZoneOffset.UTC).plusDays(horizonMs / 86_400_000 + 1);
+        int loaded = 0;
+        for (var r : bills.nextReminders(until)) {
+            if (schedule(r.getUserId(), zoneOf(r.getTimeZone()), r.getNextDate(), now, true)) loaded++;
+        }
+        log.info("[BILLS] reminder wheel reloaded: {} users scheduled", loaded);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBillScheduleChanged(BillScheduleChangedEvent e) {
+        reschedule(e.userId(), true);
+    }
+
+    private void fire(Long userId) {
+        try {
+            ZoneId zone = users.findById(userId).map(u -> zoneOf(u.getTimeZone())).orElse(null);
+            if (zone == null) return;
+            billService.notifyUser(userId, LocalDate.now(zone));
+        } catch (Exception e) {
+            log.warn("[BILLS] reminder for user {} failed: {}", userId, e.toString());
+        }
+        reschedule(userId, false); // same-day leftovers (claimed elsewhere) wait for the next reload
+    }
+
+    private void reschedule(Long userId, boolean fireIfOverdue) {
+        LocalDate next = bills.nextNotifyDateForUser(userId);
+        if (next == null) {
+            synchronized (this) {
+                var old = byUser.remove(userId);
+                if (old != null) old.cancel();
+            }
+            return;
+        }
+        ZoneId zone = users.findById(userId).map(u -> zoneOf(u.getTimeZone())).orElse(defaultZone);
+        schedule(userId, zone, next, System.currentTimeMillis(), fireIfOverdue);
+    }
+
+    /** Put the user's reminder in the wheel (replacing any other instant); true if scheduled or fired. */
+    private boolean schedule(Long userId, ZoneId zone, LocalDate day, long now, boolean fireIfOverdue) {
+        long at = reminderAt(userId, zone, day);
+        if (at > now + horizonMs) return false; // picked up by a later reload
+        synchronized (this) {
+            var old = byUser.get(userId);
+            if (old != null && old.deadline() == at && !old.isCancelled()) return true;
+            if (old != null) old.cancel();
+            byUser.remove(userId);
+            if (at <= now) {
+                if (!fireIfOverdue) return false;
+            } else {
+                var t = wheel.schedule(at, userId);
+                if (t != null) {
+                    byUser.put(userId, t);
+                    return true;
+                }
+            }
+        }
+        firing.execute(() -> fire(userId));
+        return true;
+    }
+
+    /**
+     * {@code remind-at} on {@code day} in {@code zone} plus the user's offset. A wall time skipped by
+     * a DST gap moves forward by the gap; one repeated by an overlap uses the earlier instant.
+     */
+    long reminderAt(Long userId, ZoneId zone, LocalDate day) {
+        return day.atTime(remindAt).atZone(zone).toInstant().toEpochMilli() + offset(userId);
+    }
+
+    /** Stable per-user offset in [0, spread) so a zone's reminders don't all land on one second. */
+    private long offset(Long userId) {
+        if (spreadMs <= 0) return 0;
+        long h = userId * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 31;
+        return Math.floorMod(h, spreadMs);
+    }
+
+    private ZoneId zoneOf(String id) {
+        if (id == null || id.isBlank()) return defaultZone;
+        try {
+            return ZoneId.of(id);
+        } catch (DateTimeException e) {
+            return defaultZone;
+        }
+    }
+}
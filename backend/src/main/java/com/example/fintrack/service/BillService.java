@@ -1,47 +1,62 @@
 package com.example.fintrack.service;
 
+import com.example.fintrack.events.BillScheduleChangedEvent;
+import com.example.fintrack.html.HtmlMail;
+import com.example.fintrack.html.HtmlWriter;
 import com.example.fintrack.model.Bill;
+import com.example.fintrack.model.Recurrence;
 import com.example.fintrack.model.User;
 import com.example.fintrack.repository.BillRepository;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
-import jakarta.mail.internet.MimeMessage;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class BillService {
 
     private final BillRepository bills;
-    private final JavaMailSender mailSender;
-
-    public BillService(BillRepository bills, JavaMailSender mailSender) {
-        this.bills = bills; this.mailSender = mailSender;
+    private final BillOccurrenceService occurrences;
+    private final MailOutboxService mail;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher appEvents;
+    private final int pageSize;
+
+    public BillService(BillRepository bills, BillOccurrenceService occurrences, MailOutboxService mail,
+                       TransactionTemplate tx, ApplicationEventPublisher appEvents,
+                       @Value("${app.bills.page-size:500}") int pageSize) {
+        this.bills = bills; this.occurrences = occurrences; this.mail = mail; this.tx = tx; this.appEvents = appEvents; this.pageSize = pageSize;
     }
 
     public record BillView(Long id, String name, String category, BigDecimal amount,
-                           int dueDay, int leadDays, boolean active, String nextDueDate) {}
+                           int dueDay, int leadDays, boolean active, String nextDueDate,
+                           String frequency, int interval, String anchorDate) {}
+
+    /** Recurrence fields of a create/update; null leaves the current value. */
+    public record Schedule(String frequency, Integer interval, LocalDate anchorDate) {}
 
     public List<BillView> list(User u) {
-        var ym = YearMonth.now();
+        var today = LocalDate.now();
         return bills.findByUserOrderByCreatedAtDesc(u).stream().map(b ->
                 new BillView(
                         b.getId(), b.getName(), b.getCategory().name(), b.getAmount(),
                         b.getDueDay(), b.getLeadDays(), b.isActive(),
-                        b.dueDateForMonth(ym).toString()
+                        b.recurrence().firstOnOrAfter(today).toString(),
+                        b.getFrequency().name(), b.getRepeatInterval(),
+                        b.getAnchorDate() == null ? null : b.getAnchorDate().toString()
                 )
         ).toList();
     }
 
     @Transactional
-    public Bill create(User u, String name, String category, BigDecimal amount, int dueDay, int leadDays) {
+    public Bill create(User u, String name, String category, BigDecimal amount, int dueDay, int leadDays, Schedule schedule) {
         var b = new Bill();
         b.setUser(u);
         b.setName(name);
@@ -49,11 +64,18 @@ public class BillService {
         b.setAmount(amount);
         b.setDueDay(dueDay);
         b.setLeadDays(Math.max(0, leadDays));
-        return bills.save(b);
+        b.setAnchorDate(LocalDate.now());
+        applySchedule(b, schedule);
+        b.refreshNextNotifyDate(LocalDate.now());
+        Bill saved = bills.save(b);
+        occurrences.rematerialize(saved, LocalDate.now());
+        appEvents.publishEvent(new BillScheduleChangedEvent(u.getId()));
+        return saved;
     }
 
     @Transactional
-    public Bill update(User u, Long id, String name, String category, BigDecimal amount, Integer dueDay, Integer leadDays, Boolean active) {
+    public Bill update(User u, Long id, String name, String category, BigDecimal amount, Integer dueDay, Integer leadDays, Boolean active,
+                       Schedule schedule) {
         var b = bills.findByIdAndUser(id, u).orElseThrow();
         if (name != null) b.setName(name);
         if (category != null) b.setCategory(com.example.fintrack.model.Category.valueOf(category));
@@ -61,73 +83,124 @@ public class BillService {
         if (dueDay != null) b.setDueDay(dueDay);
         if (leadDays != null) b.setLeadDays(leadDays);
         if (active != null) b.setActive(active);
-        return bills.save(b);
+        applySchedule(b, schedule);
+        b.refreshNextNotifyDate(LocalDate.now());
+        Bill saved = bills.save(b);
+        occurrences.rematerialize(saved, LocalDate.now());
+        appEvents.publishEvent(new BillScheduleChangedEvent(u.getId()));
+        return saved;
     }
 
     @Transactional public void delete(User u, Long id) {
         var b = bills.findByIdAndUser(id, u).orElseThrow();
+        occurrences.deleteForBill(b.getId());
         bills.delete(b);
+        appEvents.publishEvent(new BillScheduleChangedEvent(u.getId()));
     }
 
-    /** Send an email listing bills due in exactly 'leadDays' from 'today' (per bill). */
-    @Transactional
-    public int runDailyCheck(LocalDate today) {
-        var ym = YearMonth.from(today);
-        var all = bills.findByActiveTrue();
-        var byUser = all.stream().collect(Collectors.groupingBy(Bill::getUser));
+    /** Sets the recurrence fields and validates the result (IllegalArgumentException if invalid). */
+    private static void applySchedule(Bill b, Schedule s) {
+        if (s != null) {
+            if (s.frequency() != null) b.setFrequency(Recurrence.Freq.valueOf(s.frequency().trim().toUpperCase()));
+            if (s.interval() != null) b.setRepeatInterval(s.interval());
+            if (s.anchorDate() != null) b.setAnchorDate(s.anchorDate());
+        }
+        b.recurrence();
+    }
+
+    private record Due(Bill bill, LocalDate date) {}
+    private record Mark(LocalDate due, LocalDate next) {}
 
+    /**
+     * Email each user the bills whose reminder day (due date minus leadDays) has come. Only bills
+     * with next_notify_date <= today are read, a page of users at a time; each page's mails and
+     * next_notify_date/lastNotifiedYm updates commit together.
+     */
+    public int runDailyCheck(LocalDate today) {
+        backfillNextNotifyDates(today);
         int emails = 0;
-        for (var entry : byUser.entrySet()) {
-            var user = entry.getKey();
-            var dueSoon = new ArrayList<Bill>();
-            for (var b : entry.getValue()) {
-                var due = b.dueDateForMonth(ym);
-                var delta = java.time.temporal.ChronoUnit.DAYS.between(today, due);
-                boolean hitWindow = delta == b.getLeadDays();
-                boolean notAlready = (b.getLastNotifiedYm() == null || !b.getLastNotifiedYm().equals(ym.toString()));
-                if (hitWindow && notAlready) {
-                    dueSoon.add(b);
-                }
-            }
-            if (!dueSoon.isEmpty()) {
-                sendEmail(user.getEmail(), dueSoon, ym);
-                for (var b : dueSoon) { b.setLastNotifiedYm(ym.toString()); }
-                emails++;
-            }
+        long after = 0;
+        List<Long> userIds;
+        while (!(userIds = bills.dueUserIds(today, after, PageRequest.of(0, pageSize))).isEmpty()) {
+            after = userIds.get(userIds.size() - 1);
+            List<Long> page = userIds;
+            Integer sent = tx.execute(s -> notifyUsers(page, today));
+            emails += sent == null ? 0 : sent;
         }
         return emails;
     }
 
-    /** Send a manual preview email (list all active bills + next due date). */
-    public void sendPreview(User u) {
-        var ym = YearMonth.now();
-        var list = bills.findByUserAndActiveTrue(u);
-        sendEmail(u.getEmail(), list, ym);
+    /** Send one user's due reminders as of their local {@code today}; used by BillReminderScheduler. */
+    public int notifyUser(Long userId, LocalDate today) {
+        Integer sent = tx.execute(s -> notifyUsers(List.of(userId), today));
+        return sent == null ? 0 : sent;
     }
 
-    private void sendEmail(String to, List<Bill> items, YearMonth ym) {
-        try {
-            MimeMessage msg = mailSender.createMimeMessage();
-            MimeMessageHelper h = new MimeMessageHelper(msg, true);
-            h.setTo(to);
-            h.setSubject("Upcoming bills (" + ym + ")");
-            StringBuilder html = new StringBuilder();
-            html.append("<h3>Upcoming bills</h3><table border='1' cellpadding='6' cellspacing='0'>")
-                    .append("<tr><th>Name</th><th>Category</th><th>Amount</th><th>Due date</th></tr>");
-            for (var b : items) {
-                html.append("<tr><td>").append(escape(b.getName()))
-                        .append("</td><td>").append(b.getCategory().name())
-                        .append("</td><td>₹ ").append(b.getAmount())
-                        .append("</td><td>").append(b.dueDateForMonth(ym))
-                        .append("</td></tr>");
+    private int notifyUsers(List<Long> userIds, LocalDate today) {
+        Map<Long, List<Due>> byUser = new LinkedHashMap<>();
+        Map<Mark, List<Long>> notified = new HashMap<>();
+        Map<LocalDate, List<Long>> missed = new HashMap<>();
+        for (Bill b : bills.dueForUsers(userIds, today)) {
+            LocalDate due = b.getNextNotifyDate().plusDays(b.getLeadDays());
+            if (due.isBefore(today)) {
+                // a run was skipped and the bill is already past due; just move it on
+                missed.computeIfAbsent(b.nextNotifyDate(today, b.notifiedThrough()), k -> new ArrayList<>()).add(b.getId());
+                continue;
             }
-            html.append("</table><p>This is an automated reminder.</p>");
-            h.setText(html.toString(), true);
-            mailSender.send(msg);
-        } catch (Exception e) {
-            // swallow; reminders are best-effort
+            byUser.computeIfAbsent(b.getUser().getId(), k -> new ArrayList<>()).add(new Due(b, due));
+            notified.computeIfAbsent(new Mark(due, b.nextNotifyDate(today.plusDays(1), due)), k -> new ArrayList<>()).add(b.getId());
+        }
+
+        for (List<Due> items : byUser.values()) {
+            sendEmail(items.get(0).bill().getUser().getEmail(), items, YearMonth.from(items.get(0).date()));
         }
+        notified.forEach((m, ids) -> bills.markNotified(ids, YearMonth.from(m.due()).toString(), m.due(), m.next()));
+        missed.forEach((next, ids) -> bills.reschedule(ids, next));
+        return byUser.size();
     }
 
-    private static String escape(String s){ return s==null?"":s.replace("&","&amp;").replace("<","&lt;").replace(">","&gt;"); }
+    /** Active bills saved before next_notify_date existed get it computed here, once. */
+    public void backfillNextNotifyDates(LocalDate today) {
+        Integer n;
+        do {
+            n = tx.execute(s -> {
+                List<Bill> batch = bills.findByActiveTrueAndNextNotifyDateIsNull(PageRequest.of(0, pageSize));
+                batch.forEach(b -> b.refreshNextNotifyDate(today));
+                return batch.size();
+            });
+        } while (n != null && n > 0);
+    }
+
+    /** Send a manual preview email (list all active bills + next due date). */
+    public void sendPreview(User u) {
+        var today = LocalDate.now();
+        var list = bills.findByUserAndActiveTrue(u).stream().map(b -> new Due(b, b.recurrence().firstOnOrAfter(today))).toList();
+        sendEmail(u.getEmail(), list, YearMonth.from(today));
+    }
+
+    private static final byte[] BILLS_HEAD = HtmlWriter.fragment(
+            "<h3>Upcoming bills</h3><table border='1' cellpadding='6' cellspacing='0'>"
+            + "<tr><th>Name</th><th>Category</th><th>Amount</th><th>Due date</th></tr>");
+    private static final byte[] BILL_ROW = HtmlWriter.fragment("<tr><td>");
+    private static final byte[] BILL_CELL = HtmlWriter.fragment("</td><td>");
+    private static final byte[] BILL_AMOUNT = HtmlWriter.fragment("</td><td>₹ ");
+    private static final byte[] BILL_ROW_END = HtmlWriter.fragment("</td></tr>");
+    private static final byte[] BILLS_TAIL = HtmlWriter.fragment("</table><p>This is an automated reminder.</p>");
+
+    /** Queued in the caller's transaction, so a reminder is sent iff lastNotifiedYm is saved. */
+    private void sendEmail(String to, List<Due> items, YearMonth ym) {
+        byte[] html = HtmlMail.render(w -> {
+            w.raw(BILLS_HEAD);
+            for (var d : items) {
+                var b = d.bill();
+                w.raw(BILL_ROW).text(b.getName())
+                 .raw(BILL_CELL).text(b.getCategory().name())
+                 .raw(BILL_AMOUNT).money(b.getAmount())
+                 .raw(BILL_CELL).text(d.date().toString())
+                 .raw(BILL_ROW_END);
+            }
+            w.raw(BILLS_TAIL);
+        });
+        mail.enqueueHtml(to, "Upcoming bills (" + ym + ")", html);
+    }
 }
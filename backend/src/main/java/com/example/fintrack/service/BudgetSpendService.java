@@ -0,0 +1,160 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.model.BudgetSpend;
+import com.example.fintrack.model.Category;
+import com.example.fintrack.model.Transaction;
+import com.example.fintrack.repository.BudgetSpendRepository;
+import com.example.fintrack.repository.TransactionRepository;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per (user, month, category) spend counters in budget_spend. Every transaction insert/delete adds
+ * its amount with one {@code INSERT ... ON CONFLICT DO UPDATE ... RETURNING} in the same database
+ * transaction, which also returns the category's limit, so a budget threshold crossing raises an
+ * alert right there, without rescanning the month.
+ *
+ * <p>A user's counters are built from their transactions once, on first use, while holding their
+ * users row FOR UPDATE. Until a node has seen the built flag it takes the same lock before writing,
+ * so a transaction is counted either by the build or by its own increment, never both.
+ */
+@Service
+public class BudgetSpendService {
+    private static final Logger log = LoggerFactory.getLogger(BudgetSpendService.class);
+
+    private static final String ADD = """
+            insert into budget_spend (user_id, year, month, category, spent, alerted_pct) values (?, ?, ?, ?, ?, 0)
+            on conflict (user_id, year, month, category) do update set spent = budget_spend.spent + excluded.spent
+            returning spent, alerted_pct,
+                (select b.limit_amount from budgets b
+                 where b.user_id = budget_spend.user_id and b.year = budget_spend.year
+                   and b.month = budget_spend.month and b.category = budget_spend.category)
+            """;
+
+    private static final String SEED = """
+            insert into budget_spend (user_id, year, month, category, spent, alerted_pct)
+            select t.user_id, extract(year from t.date)::int, extract(month from t.date)::int, t.category,
+                   sum(t.amount), 0
+            from transactions t
+            where t.user_id = ?
+            group by t.user_id, extract(year from t.date), extract(month from t.date), t.category
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final BudgetSpendRepository counters;
+    private final TransactionRepository transactions;
+    private final AlertService alerts;
+    private final int[] thresholds; // ascending percents
+    private final String levelOfRow;  // SQL: threshold reached by budget_spend row "s" against its budget
+
+    /** Users whose counters are known to be built; the flag never goes back, so no invalidation. */
+    private final Set<Long> seeded = ConcurrentHashMap.newKeySet();
+
+    public BudgetSpendService(JdbcTemplate jdbc, TransactionTemplate tx, BudgetSpendRepository counters,
+                              TransactionRepository transactions, AlertService alerts,
+                              @Value("${app.budgets.alert-thresholds:80,100}") int[] thresholds) {
+        this.jdbc = jdbc; this.tx = tx; this.counters = counters; this.transactions = transactions; this.alerts = alerts;
+        this.thresholds = Arrays.stream(thresholds).filter(p -> p > 0).sorted().distinct().toArray();
+        StringBuilder level = new StringBuilder("coalesce((select case");
+        for (int i = this.thresholds.length - 1; i >= 0; i--) {
+            int p = this.thresholds[i];
+            level.append(" when b.limit_amount > 0 and s.spent * 100 >= b.limit_amount * ").append(p)
+                 .append(" then ").append(p);
+        }
+        this.levelOfRow = level.append(" else 0 end from budgets b where b.user_id = s.user_id and b.year = s.year")
+                .append(" and b.month = s.month and b.category = s.category), 0)").toString();
+    }
+
+    private record Counter(BigDecimal spent, int alertedPct, BigDecimal limit) {}
+
+    /** Count a saved transaction; must run in the transaction that inserted it. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Transaction t) {
+        apply(t, t.getAmount());
+    }
+
+    /** Uncount a transaction; must run in the transaction that deleted it. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Transaction t) {
+        apply(t, t.getAmount().negate());
+    }
+
+    /** Counters for months from..to inclusive (one query), building the user's counters first if needed. */
+    public List<BudgetSpend> range(Long userId, YearMonth from, YearMonth to) {
+        ensureSeeded(userId);
+        return counters.findRange(userId, from.getYear() * 12 + from.getMonthValue(), to.getYear() * 12 + to.getMonthValue());
+    }
+
+    /**
+     * After a limit change, lower alerted_pct to what the new limit implies so the next crossing
+     * alerts again; never raises it (that is left to the next transaction, which alerts).
+     */
+    public void limitsChanged(Long userId, Set<YearMonth> months) {
+        if (!seeded.contains(userId)) return;
+        for (YearMonth ym : months) {
+            jdbc.update("update budget_spend s set alerted_pct = least(s.alerted_pct, " + levelOfRow + ")"
+                    + " where s.user_id = ? and s.year = ? and s.month = ?", userId, ym.getYear(), ym.getMonthValue());
+        }
+    }
+
+    private void apply(Transaction t, BigDecimal delta) {
+        Long userId = t.getUser().getId();
+        if (!seeded.contains(userId)) {
+            // the seed reads transactions over JDBC: pending JPA writes (e.g. deleteById) must be in first
+            transactions.flush();
+            if (seedLocked(userId)) return; // built in this transaction, which already includes t
+            seeded.add(userId);           // built and committed by an earlier transaction
+        }
+
+        YearMonth ym = YearMonth.from(t.getDate());
+        String cat = t.getCategory().name();
+        Counter c = jdbc.queryForObject(ADD, (rs, i) -> new Counter(rs.getBigDecimal(1), rs.getInt(2), rs.getBigDecimal(3)),
+                userId, ym.getYear(), ym.getMonthValue(), cat, delta);
+        int level = t.getCategory() == Category.INCOME ? 0 : level(c.spent(), c.limit());
+        if (level == c.alertedPct()) return;
+        // the upsert holds the row lock until commit, so this can't race another writer
+        jdbc.update("update budget_spend set alerted_pct = ? where user_id = ? and year = ? and month = ? and category = ?",
+                level, userId, ym.getYear(), ym.getMonthValue(), cat);
+        if (level > c.alertedPct()) alerts.budgetThreshold(t.getUser(), ym, t.getCategory(), level, c.spent(), c.limit());
+    }
+
+    /** Highest threshold reached by {@code spent} against {@code limit}; 0 with no limit. */
+    private int level(BigDecimal spent, BigDecimal limit) {
+        if (limit == null || limit.signum() <= 0) return 0;
+        BigDecimal pct = spent.multiply(BigDecimal.valueOf(100));
+        for (int i = thresholds.length - 1; i >= 0; i--) {
+            if (pct.compareTo(limit.multiply(BigDecimal.valueOf(thresholds[i]))) >= 0) return thresholds[i];
+        }
+        return 0;
+    }
+
+    /** Build the user's counters from their transactions, once; past crossings are marked as alerted. */
+    private void ensureSeeded(Long userId) {
+        if (seeded.contains(userId)) return;
+        tx.executeWithoutResult(s -> seedLocked(userId));
+        seeded.add(userId);
+    }
+
+    /** Lock the user row and build the counters if nobody has; true if built here. Needs a transaction. */
+    private boolean seedLocked(Long userId) {
+        Boolean built = jdbc.queryForObject("select spend_seeded from users where id = ? for update", Boolean.class, userId);
+        if (Boolean.TRUE.equals(built)) return false;
+        jdbc.update("delete from budget_spend where user_id = ?", userId);
+        int rows = jdbc.update(SEED, userId);
+        jdbc.update("update budget_spend s set alerted_pct = " + levelOfRow + " where s.user_id = ?", userId);
+        jdbc.update("update users set spend_seeded = true where id = ?", userId);
+        log.info("[BUDGET] built {} spend counters for user {}", rows, userId);
+        return true;
+    }
+}
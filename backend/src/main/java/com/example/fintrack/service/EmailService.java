@@ -1,19 +1,14 @@
 package com.example.fintrack.service;
 
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 @Service
 public class EmailService {
-    private final JavaMailSender mailSender;
-    public EmailService(JavaMailSender mailSender) { this.mailSender = mailSender; }
+    private final MailOutboxService outbox;
+    public EmailService(MailOutboxService outbox) { this.outbox = outbox; }
 
+    /** Plain-text mail, delivered asynchronously via the outbox. */
     public void send(String to, String subject, String text) {
-        SimpleMailMessage msg = new SimpleMailMessage();
-        msg.setTo(to);
-        msg.setSubject(subject);
-        msg.setText(text);
-        mailSender.send(msg);
+        outbox.enqueueText(to, subject, text);
     }
 }
@@ -1,32 +1,54 @@
 package com.example.fintrack.service;
 
 import com.example.fintrack.events.EventEnvelope;
+import com.example.fintrack.model.EventOutbox;
 import com.example.fintrack.model.User;
+import com.example.fintrack.repository.EventOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.JacksonUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Map;
 
+/**
+ * Queues domain events in event_outbox. Joins the caller's transaction when there is one, so an
+ * event only goes out if the change it describes commits; EventRelay does the Kafka send.
+ */
 @Service
 public class EventPublisher {
 
-    private final KafkaTemplate<String, Object> kafka;
+    private final EventOutboxRepository outbox;
+    private final ObjectMapper json;
     private final String topic;
 
-    public EventPublisher(KafkaTemplate<String, Object> kafka,
+    public EventPublisher(EventOutboxRepository outbox,
                           @Value("${app.kafka.events-topic:fintrack.events}") String topic) {
-        this.kafka = kafka;
+        this.outbox = outbox;
+        // the mapper Kafka's JsonSerializer uses, so payloads keep its format (e.g. ts as epoch seconds)
+        this.json = JacksonUtils.enhancedObjectMapper();
         this.topic = topic;
     }
 
+    @Transactional
     public void publish(String type, User user, Map<String, Object> data) {
         EventEnvelope e = new EventEnvelope(type,
                 user != null ? user.getId() : null,
                 user != null ? user.getEmail() : null,
                 data, Instant.now());
-        String key = (user != null ? String.valueOf(user.getId()) : "anon") + ":" + type;
-        kafka.send(topic, key, e);
+        // user id alone: all of a user's events land on one partition, in publish order
+        String key = user != null ? String.valueOf(user.getId()) : "anon";
+        EventOutbox row = new EventOutbox();
+        row.setTopic(topic);
+        row.setEventKey(key);
+        try {
+            row.setPayload(json.writeValueAsString(e));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("unserializable event " + type, ex);
+        }
+        outbox.save(row);
     }
 }
@@ -0,0 +1,171 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.model.EventOutbox;
+import com.example.fintrack.repository.EventOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains event_outbox into the {@link EventSink}. Each batch is claimed with SKIP LOCKED and leased
+ * in a short transaction, handed to the sink in one call, then marked delivered; failed rows back
+ * off exponentially and are retried until the broker takes them (at-least-once).
+ *
+ * <p>Events are ordered per key (user), so only one replica relays at a time, under a Postgres
+ * advisory lock held for the tick. A failed row also re-queues the later rows of its key in the
+ * batch, so the retry re-sends them after it: consumers may see duplicates, but the last copy of
+ * each event arrives in publish order.
+ *
+ * <p>Ticks run on a thread of their own: a broker outage makes every send block (up to the
+ * producer's max.block.ms), and the shared scheduler also drives SSE heartbeats, shard lease
+ * renewal and the bill reminder wheel. A tick also stops at the first batch that isn't fully delivered.
+ */
+@Component
+public class EventRelay {
+    private static final Logger log = LoggerFactory.getLogger(EventRelay.class);
+
+    /** pg advisory lock id for the single active relay ("EVTRELAY"). */
+    private static final long RELAY_LOCK = 0x4556_5452_454C_4159L;
+
+    private final EventOutboxRepository outbox;
+    private final EventSink sink;
+    private final TransactionTemplate tx;
+    private final JdbcTemplate jdbc;
+    private final int batchSize;
+    private final int maxBatchesPerTick;
+    private final long leaseMs;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final int retainHours;
+    private final long pollMs;
+    private final ScheduledExecutorService relayThread = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "event-relay");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public EventRelay(EventOutboxRepository outbox, EventSink sink, TransactionTemplate tx, JdbcTemplate jdbc,
+                      @Value("${app.events.outbox.batch-size:500}") int batchSize,
+                      @Value("${app.events.outbox.max-batches-per-tick:20}") int maxBatchesPerTick,
+                      @Value("${app.events.outbox.lease-ms:60000}") long leaseMs,
+                      @Value("${app.events.outbox.backoff-ms:1000}") long backoffMs,
+                      @Value("${app.events.outbox.max-backoff-ms:300000}") long maxBackoffMs,
+                      @Value("${app.events.outbox.retain-hours:24}") int retainHours,
+                      @Value("${app.events.outbox.poll-ms:500}") long pollMs) {
+        this.outbox = outbox; this.sink = sink; this.tx = tx; this.jdbc = jdbc;
+        this.batchSize = batchSize; this.maxBatchesPerTick = maxBatchesPerTick; this.leaseMs = leaseMs;
+        this.backoffMs = backoffMs; this.maxBackoffMs = maxBackoffMs; this.retainHours = retainHours;
+        this.pollMs = pollMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        relayThread.scheduleWithFixedDelay(this::relay, pollMs, pollMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() { relayThread.shutdownNow(); }
+
+    public void relay() {
+        try {
+            // session-level lock on a connection of its own; released by unlock or by the session dying
+            jdbc.execute((ConnectionCallback<Void>) con -> {
+                if (!advisory(con, "select pg_try_advisory_lock(?)")) return null;
+                try {
+                    for (int i = 0; i < maxBatchesPerTick; i++) {
+                        if (relayBatch() < batchSize) break; // drained, or the sink is failing
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    advisory(con, "select pg_advisory_unlock(?)");
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("[EVENTS] relay failed: {}", e.toString());
+        }
+    }
+
+    private static boolean advisory(Connection con, String sql) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setLong(1, RELAY_LOCK);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    @Scheduled(cron = "${app.events.outbox.purge-cron:0 45 * * * *}")
+    public void purgeDelivered() {
+        Integer n = tx.execute(s -> outbox.deleteDeliveredBefore(LocalDateTime.now().minusHours(retainHours)));
+        if (n != null && n > 0) log.info("[EVENTS] purged {} delivered outbox rows", n);
+    }
+
+    /** Claim, send and record one batch; returns how many rows were delivered. */
+    int relayBatch() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        List<EventOutbox> batch = tx.execute(s -> {
+            List<EventOutbox> rows = outbox.lockPending(now, batchSize);
+            if (!rows.isEmpty()) outbox.lease(rows.stream().map(EventOutbox::getId).toList(), now.plusNanos(leaseMs * 1_000_000));
+            return rows;
+        });
+        if (batch == null || batch.isEmpty()) return 0;
+
+        Map<Long, Exception> failed = new HashMap<>(sink.send(batch));
+        if (!failed.isEmpty()) {
+            // everything after a key's first failure goes again, behind it
+            Map<String, Exception> failedKeys = new HashMap<>();
+            for (EventOutbox e : batch) {
+                Exception error = failed.get(e.getId());
+                if (error != null) failedKeys.putIfAbsent(e.getEventKey(), error);
+                else if (failedKeys.containsKey(e.getEventKey())) failed.put(e.getId(), failedKeys.get(e.getEventKey()));
+            }
+        }
+
+        List<Long> delivered = batch.stream().map(EventOutbox::getId).filter(id -> !failed.containsKey(id)).toList();
+        LocalDateTime done = LocalDateTime.now();
+        tx.executeWithoutResult(s -> {
+            if (!delivered.isEmpty()) outbox.markDelivered(delivered, done);
+            for (EventOutbox e : batch) {
+                Exception error = failed.get(e.getId());
+                if (error != null) {
+                    outbox.retryLater(e.getId(), done.plusNanos(backoff(e.getAttempts()) * 1_000_000), truncate(error.toString()));
+                }
+            }
+        });
+        if (!failed.isEmpty()) {
+            log.warn("[EVENTS] batch of {}: {} delivered, {} failed ({})", batch.size(), delivered.size(), failed.size(),
+                    failed.values().iterator().next().toString());
+        }
+        return delivered.size();
+    }
+
+    private long backoff(int attempts) {
+        long d = backoffMs << Math.min(attempts, 20);
+        return Math.min(d, maxBackoffMs);
+    }
+
+    private static String truncate(String s) {
+        return s.length() > 1000 ? s.substring(0, 1000) : s;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.model.EventOutbox;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where EventRelay delivers outbox rows: Kafka by default, or memory
+ * ({@code app.events.sink=memory}) for tests and local runs without a broker.
+ */
+public interface EventSink {
+
+    /**
+     * Deliver the batch and wait for it to be acknowledged.
+     *
+     * @return failures by outbox id; every other row counts as delivered
+     */
+    Map<Long, Exception> send(List<EventOutbox> batch) throws InterruptedException;
+}
@@ -0,0 +1,141 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.model.Category;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transaction export straight from a forward-only JDBC cursor. Postgres only streams with
+ * autocommit off and a fetch size set, hence the read-only transaction around the query;
+ * memory use is one fetch batch plus the writer buffer regardless of row count.
+ */
+@Service
+public class ExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    public record Filter(LocalDate from, LocalDate to, Category category) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readOnly;
+
+    public ExportService(DataSource dataSource, PlatformTransactionManager txManager,
+                         @Value("${app.export.fetch-size:2000}") int fetchSize) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(fetchSize);
+        this.readOnly = new TransactionTemplate(txManager);
+        this.readOnly.setReadOnly(true);
+        this.readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Write the user's transactions matching {@code filter}, oldest first, to {@code out} (not closed). */
+    public long export(Long userId, Filter filter, Format format, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(
+                "select id, date, category, amount, note from transactions where user_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        if (filter.from() != null) { sql.append(" and date >= ?"); args.add(filter.from()); }
+        if (filter.to() != null) { sql.append(" and date <= ?"); args.add(filter.to()); }
+        if (filter.category() != null) { sql.append(" and category = ?"); args.add(filter.category().name()); }
+        sql.append(" order by date, id");
+
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        long[] rows = {0};
+        if (format == Format.CSV) w.write("id,date,category,amount,note\n");
+        RowCallbackHandler row = rs -> {
+            try {
+                long id = rs.getLong(1);
+                String date = rs.getString(2);
+                String category = rs.getString(3);
+                BigDecimal amount = rs.getBigDecimal(4);
+                String note = rs.getString(5);
+                if (format == Format.CSV) writeCsv(w, id, date, category, amount, note);
+                else writeJson(w, id, date, category, amount, note);
+                rows[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // client went away; abort the cursor
+            }
+        };
+        try {
+            readOnly.executeWithoutResult(s -> jdbc.query(sql.toString(), row, args.toArray()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        w.flush();
+        return rows[0];
+    }
+
+    private static void writeCsv(Writer w, long id, String date, String category, BigDecimal amount, String note)
+            throws IOException {
+        w.write(Long.toString(id));
+        w.write(',');
+        w.write(date);
+        w.write(',');
+        w.write(category);
+        w.write(',');
+        w.write(amount.toPlainString());
+        w.write(',');
+        if (note != null) {
+            boolean quote = false;
+            for (int i = 0; i < note.length() && !quote; i++) {
+                char c = note.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (quote) {
+                w.write('"');
+                w.write(note.replace("\"", "\"\""));
+                w.write('"');
+            } else {
+                w.write(note);
+            }
+        }
+        w.write('\n');
+    }
+
+    private static void writeJson(Writer w, long id, String date, String category, BigDecimal amount, String note)
+            throws IOException {
+        w.write("{\"id\":");
+        w.write(Long.toString(id));
+        w.write(",\"date\":\"");
+        w.write(date);
+        w.write("\",\"category\":\"");
+        w.write(category);
+        w.write("\",\"amount\":");
+        w.write(amount.toPlainString());
+        w.write(",\"note\":");
+        if (note == null) {
+            w.write("null");
+        } else {
+            w.write('"');
+            for (int i = 0; i < note.length(); i++) {
+                char c = note.charAt(i);
+                switch (c) {
+                    case '"' -> w.write("\\\"");
+                    case '\\' -> w.write("\\\\");
+                    case '\n' -> w.write("\\n");
+                    case '\r' -> w.write("\\r");
+                    case '\t' -> w.write("\\t");
+                    default -> {
+                        if (c < 0x20) w.write(String.format("\\u%04x", (int) c));
+                        else w.write(c);
+                    }
+                }
+            }
+            w.write('"');
+        }
+        w.write("}\n");
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.dto.SavingsMonth;
+import com.example.fintrack.events.TransactionsChangedEvent;
+import com.example.fintrack.service.ForecastService.Forecast;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU of forecasts keyed by user + the exact month history sent to the model.
+ * Concurrent misses for the same key share one upstream call (single-flight), and a
+ * {@link TransactionsChangedEvent} drops the user's entries that include a touched month.
+ * Per-user bookkeeping lives only while the user has cached entries or a load in progress.
+ */
+@Component
+public class ForecastCache {
+
+    record Key(Long userId, List<SavingsMonth> months) {}
+
+    /** A user's cached keys, loads in progress, and a generation bumped on invalidation. */
+    private static final class UserState {
+        final Set<Key> keys = new HashSet<>();
+        int loading;
+        long generation;
+    }
+
+    private final int maxEntries;
+    private final Object lock = new Object();
+    private final LinkedHashMap<Key, Forecast> lru;            // guarded by lock
+    private final Map<Long, UserState> users = new HashMap<>(); // guarded by lock
+    private final Map<Key, CompletableFuture<Forecast>> inFlight = new ConcurrentHashMap<>();
+
+    public ForecastCache(@Value("${app.forecast.cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.lru = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<Key, Forecast> eldest) {
+                if (size() <= ForecastCache.this.maxEntries) return false;
+                unindex(eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    /** Cached forecast for this exact history, or the loader's result (cached only if {@code cacheable}). */
+    public Forecast get(Long userId, List<SavingsMonth> months, Supplier<Forecast> loader) {
+        Key key = new Key(userId, List.copyOf(months));
+        UserState st;
+        long gen;
+        synchronized (lock) {
+            Forecast hit = lru.get(key);
+            if (hit != null) return hit;
+            st = users.computeIfAbsent(userId, k -> new UserState());
+            st.loading++; // keeps st (and its generation) in the map until we're done
+            gen = st.generation;
+        }
+        try {
+            return load(key, st, gen, loader);
+        } finally {
+            synchronized (lock) {
+                st.loading--;
+                release(userId, st);
+            }
+        }
+    }
+
+    private Forecast load(Key key, UserState st, long gen, Supplier<Forecast> loader) {
+        CompletableFuture<Forecast> mine = new CompletableFuture<>();
+        CompletableFuture<Forecast> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            Forecast f = loader.get();
+            if (f.cacheable()) {
+                synchronized (lock) {
+                    // skip if a write for this user landed while we were computing
+                    if (st.generation == gen) {
+                        st.keys.add(key);
+                        lru.put(key, f);
+                    }
+                }
+            }
+            mine.complete(f);
+            return f;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent e) {
+        synchronized (lock) {
+            UserState st = users.get(e.userId());
+            if (st == null) return; // nothing cached or loading
+            st.generation++;
+            st.keys.removeIf(k -> {
+                for (SavingsMonth m : k.months()) {
+                    if (e.months().contains(YearMonth.of(m.year(), m.month()))) {
+                        lru.remove(k);
+                        return true;
+                    }
+                }
+                return false;
+            });
+            release(e.userId(), st);
+        }
+    }
+
+    private void unindex(Key k) {
+        UserState st = users.get(k.userId());
+        if (st != null && st.keys.remove(k)) release(k.userId(), st);
+    }
+
+    int trackedUsers() {
+        synchronized (lock) { return users.size(); }
+    }
+
+    private void release(Long userId, UserState st) {
+        if (st.loading == 0 && st.keys.isEmpty()) users.remove(userId, st);
+    }
+}
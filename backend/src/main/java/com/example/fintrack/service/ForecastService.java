@@ -0,0 +1,111 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.dto.ForecastRequest;
+import com.example.fintrack.dto.SavingsMonth;
+import com.example.fintrack.ml.MlGateway;
+import com.example.fintrack.ml.MlUnavailableException;
+import com.example.fintrack.ml.SavingsForecaster;
+import com.example.fintrack.model.Category;
+import com.example.fintrack.model.Transaction;
+import com.example.fintrack.model.User;
+import com.example.fintrack.repository.TransactionRepository;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Next-month savings forecast shared by /insights/forecast and the monthly report.
+ * Runs in-process by default ({@code app.forecast.engine=local}); the remote engine calls
+ * ml-service and falls back to the local linear model, which returns the same numbers.
+ */
+@Service
+public class ForecastService {
+    private static final Logger log = LoggerFactory.getLogger(ForecastService.class);
+
+    private static final int HISTORY_MONTHS = 6;
+
+    /** {@code note} is set when the number is not the model's (no data, or ML fallback). */
+    public record Forecast(double nextMonthSavings, List<Double> history, String note) {
+        boolean cacheable() { return note == null; }
+    }
+
+    private final TransactionRepository txRepo;
+    private final MlGateway ml;
+    private final ForecastCache cache;
+    private final SavingsForecaster forecaster;
+    private final boolean remote;
+    private final SavingsForecaster.Model model;
+
+    public ForecastService(TransactionRepository txRepo, MlGateway ml, ForecastCache cache,
+                           SavingsForecaster forecaster,
+                           @Value("${app.forecast.engine:local}") String engine,
+                           @Value("${app.forecast.model:linear}") String model) {
+        this.txRepo = txRepo; this.ml = ml; this.cache = cache; this.forecaster = forecaster;
+        this.remote = "remote".equalsIgnoreCase(engine);
+        this.model = SavingsForecaster.Model.valueOf(model.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public Forecast forecast(User user) {
+        List<SavingsMonth> months = recentMonths(user);
+        if (months.isEmpty()) {
+            return new Forecast(0.0, List.of(), "No transactions found in recent months");
+        }
+        return cache.get(user.getId(), months, () -> predict(months));
+    }
+
+    /** Last 6 full months with any activity (all-zero months skipped), oldest first; one query. */
+    public List<SavingsMonth> recentMonths(User user) {
+        YearMonth first = YearMonth.now().minusMonths(HISTORY_MONTHS);
+        YearMonth last = YearMonth.now().minusMonths(1);
+        List<Transaction> txs = txRepo.findByUserAndDateBetween(user, first.atDay(1), last.atEndOfMonth());
+
+        BigDecimal[] income = new BigDecimal[HISTORY_MONTHS];
+        BigDecimal[] expense = new BigDecimal[HISTORY_MONTHS];
+        Arrays.fill(income, BigDecimal.ZERO);
+        Arrays.fill(expense, BigDecimal.ZERO);
+        for (Transaction t : txs) {
+            int i = (int) first.until(YearMonth.from(t.getDate()), ChronoUnit.MONTHS);
+            if (t.getCategory() == Category.INCOME) income[i] = income[i].add(t.getAmount());
+            else expense[i] = expense[i].add(t.getAmount());
+        }
+
+        List<SavingsMonth> months = new ArrayList<>();
+        for (int i = 0; i < HISTORY_MONTHS; i++) {
+            double inc = income[i].doubleValue(), exp = expense[i].doubleValue();
+            if (inc > 0.0 || exp > 0.0) { // skip empty months
+                YearMonth ym = first.plusMonths(i);
+                months.add(new SavingsMonth(ym.getYear(), ym.getMonthValue(), inc, exp));
+            }
+        }
+        return months;
+    }
+
+    private Forecast predict(List<SavingsMonth> months) {
+        double[] y = new double[months.size()];
+        for (int i = 0; i < y.length; i++) y[i] = months.get(i).income() - months.get(i).expense();
+        List<Double> history = Arrays.stream(y).boxed().toList();
+
+        if (remote) {
+            try {
+                Map<?, ?> resp = ml.post("/predict/savings", new ForecastRequest(months), Map.class);
+                Object v = resp.get("next_month_savings");
+                if (v instanceof Number num) return new Forecast(num.doubleValue(), history, null);
+            } catch (MlUnavailableException ex) {
+                log.warn("[FORECAST] ML unavailable, using local linear model: {}", ex.getMessage());
+            }
+            // noted, so it isn't cached: the next request tries ML again
+            return new Forecast(forecaster.forecast(y, SavingsForecaster.Model.LINEAR), history,
+                    "ML unavailable; local linear model");
+        }
+        return new Forecast(forecaster.forecast(y, model), history, null);
+    }
+}
@@ -1,8 +1,15 @@
 package com.example.fintrack.service;
 
+import com.example.fintrack.events.TransactionsChangedEvent;
+import com.example.fintrack.ml.GoalSimulator;
 import com.example.fintrack.model.*;
 import com.example.fintrack.repository.*;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.example.fintrack.service.EventPublisher;
@@ -11,10 +18,12 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @Service
 public class GoalService {
+    private static final Logger log = LoggerFactory.getLogger(GoalService.class);
 
     private final GoalRepository goals;
     private final GoalContributionRepository contribs;
@@ -22,6 +31,14 @@ public class GoalService {
 
     @Autowired
     private EventPublisher events;
+    @Autowired
+    private ApplicationEventPublisher appEvents;
+    @Autowired
+    private BudgetSpendService budgetSpend;
+    @Autowired
+    private GoalSimulator simulator;
+    @Value("${app.goals.simulate.history-months:12}")
+    private int simulateHistoryMonths;
     public GoalService(GoalRepository goals, GoalContributionRepository contribs, TransactionRepository txRepo) {
         this.goals = goals; this.contribs = contribs; this.txRepo = txRepo;
     }
@@ -30,14 +47,12 @@ public class GoalService {
                            String status, BigDecimal contributed, BigDecimal remaining,
                            int progressPct, BigDecimal monthlyNeeded, Integer monthsLeft) {}
 
+    /** One query: progress comes from the goals' running totals, not from summing contribution rows. */
     public List<GoalView> list(User u) {
         var list = goals.findByUserOrderByCreatedAtDesc(u);
-        List<GoalView> out = new ArrayList<>();
+        List<GoalView> out = new ArrayList<>(list.size());
         for (var g : list) {
-            var cons = contribs.findByGoal(g);
-            BigDecimal contributed = cons.stream()
-                    .map(GoalContribution::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal contributed = g.getContributed();
 
             BigDecimal remaining = g.getTargetAmount().subtract(contributed).max(BigDecimal.ZERO);
             int monthsLeft = Math.max(1, monthsBetweenInclusive(YearMonth.now(), YearMonth.from(g.getTargetDate())));
@@ -105,6 +120,61 @@ public class GoalService {
         return new Plan(available, totalNeed, items);
     }
 
+    public record GoalOdds(Long goalId, String name, BigDecimal remaining, int monthsLeft, double probability) {}
+    public record Simulation(int paths, BigDecimal monthlyMean, BigDecimal monthlyVolatility,
+                             int historyMonths, List<GoalOdds> goals) {}
+
+    /**
+     * Probability of each active goal being funded by its target date, over {@code paths} simulated
+     * savings paths. Mean and volatility of monthly net savings come from the last
+     * {@code history-months} full months (one grouped query, months without transactions counted as
+     * zero); {@code monthly} overrides the mean.
+     * Savings are split across open goals in proportion to their monthlyNeeded, as in {@link #plan}.
+     */
+    public Simulation simulate(User u, BigDecimal monthly, int paths, long seed) {
+        YearMonth last = YearMonth.now().minusMonths(1);
+        YearMonth first = last.minusMonths(simulateHistoryMonths - 1L);
+        var totals = txRepo.monthlyTotals(u, first.atDay(1), last.atEndOfMonth(), Category.INCOME);
+        // the query omits months without transactions; those saved nothing and still count
+        double[] net = new double[totals.isEmpty() ? 0 : simulateHistoryMonths];
+        for (var t : totals) {
+            int i = (int) first.until(YearMonth.of(t.getYr(), t.getMo()), ChronoUnit.MONTHS);
+            net[i] = t.getIncome().subtract(t.getExpense()).doubleValue();
+        }
+        double mean = monthly != null ? monthly.doubleValue()
+                : net.length > 0 ? Arrays.stream(net).average().orElse(0.0) : estimateMonthlySavings(u).doubleValue();
+        double sd = 0.0;
+        if (net.length >= 2) {
+            double m = Arrays.stream(net).average().orElse(0.0), ss = 0.0;
+            for (double v : net) ss += (v - m) * (v - m);
+            sd = Math.sqrt(ss / (net.length - 1));
+        } else {
+            sd = Math.abs(mean) * 0.25; // too little history: assume +/-25%
+        }
+
+        var active = list(u).stream().filter(v -> "ACTIVE".equals(v.status())).toList();
+        int n = active.size();
+        double[] remaining = new double[n], weights = new double[n];
+        int[] months = new int[n];
+        double totalNeed = 0.0;
+        for (int i = 0; i < n; i++) totalNeed += active.get(i).monthlyNeeded().doubleValue();
+        for (int i = 0; i < n; i++) {
+            var v = active.get(i);
+            remaining[i] = v.remaining().doubleValue();
+            months[i] = v.monthsLeft();
+            weights[i] = totalNeed > 0 ? v.monthlyNeeded().doubleValue() / totalNeed : 1.0 / n;
+        }
+        double[] p = n == 0 ? new double[0] : simulator.simulate(mean, sd, remaining, months, weights, paths, seed);
+
+        List<GoalOdds> odds = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            var v = active.get(i);
+            odds.add(new GoalOdds(v.id(), v.name(), v.remaining(), v.monthsLeft(), Math.round(p[i] * 10000) / 10000.0));
+        }
+        return new Simulation(paths, BigDecimal.valueOf(mean).setScale(2, RoundingMode.HALF_UP),
+                BigDecimal.valueOf(sd).setScale(2, RoundingMode.HALF_UP), net.length, odds);
+    }
+
     @Transactional
     public Goal create(User u, String name, BigDecimal targetAmount, LocalDate targetDate) {
         var g = new Goal();
@@ -115,19 +185,22 @@ public class GoalService {
 
     @Transactional
     public GoalContribution contribute(User u, Long goalId, BigDecimal amount, LocalDate date, String note) {
-        var g = goals.findByIdAndUser(goalId, u).orElseThrow();
-        var c = new GoalContribution();
-        c.setGoal(g); c.setAmount(amount); c.setDate(date != null ? date : LocalDate.now()); c.setNote(note);
-        return contribs.save(c);
+        return contribute(u, goalId, amount, date, note, false);
     }
 
+    /**
+     * Every contribution bumps the running total with a single {@code contributed = contributed + ?}
+     * and is kept as a history row, in one transaction; concurrent contributions neither lock the
+     * goal nor lose updates.
+     */
     @Transactional
-    public void contribute(User u, Long goalId, BigDecimal amount, LocalDate date, String note, boolean affectsBudget) {
-        Goal g = goals.findByIdAndUser(goalId, u).orElseThrow();
+    public GoalContribution contribute(User u, Long goalId, BigDecimal amount, LocalDate date, String note, boolean affectsBudget) {
+        if (goals.addContribution(goalId, u, amount) == 0) throw new NoSuchElementException("Goal " + goalId + " not found");
+        Goal g = affectsBudget ? goals.findByIdAndUser(goalId, u).orElseThrow() : goals.getReferenceById(goalId);
 
-        // Update goal progress (however you store contributions)
-        g.setContributed(g.getContributed().add(amount));
-        goals.save(g);
+        var c = new GoalContribution();
+        c.setGoal(g); c.setAmount(amount); c.setDate(date != null ? date : LocalDate.now()); c.setNote(note);
+        contribs.save(c);
 
         if (affectsBudget) {
             Transaction t = new Transaction();
@@ -137,17 +210,26 @@ public class GoalService {
             t.setDate(date != null ? date : LocalDate.now());
             t.setNote(((note == null) ? "" : (note + " ")) + "(Goal: " + g.getName() + ")");
             Transaction saved = txRepo.save(t);
-
-            // optional: emit your existing events
-            try {
-                events.publish("transaction.created", u, Map.of(
-                        "id", saved.getId(),
-                        "category", saved.getCategory().name(),
-                        "amount", saved.getAmount(),
-                        "date", saved.getDate().toString()
-                ));
-            } catch (Exception ignored) {}
+            budgetSpend.recordCreated(saved);
+            appEvents.publishEvent(new TransactionsChangedEvent(u.getId(), Set.of(YearMonth.from(saved.getDate()))));
+
+            // queued in this transaction, so it can't fail independently of the contribution
+            events.publish("transaction.created", u, Map.of(
+                    "id", saved.getId(),
+                    "category", saved.getCategory().name(),
+                    "amount", saved.getAmount(),
+                    "date", saved.getDate().toString()
+            ));
         }
+        return c;
+    }
+
+    /** Goals from before the running total was authoritative get their contribution rows added once. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void foldLegacyContributions() {
+        int n = goals.foldContributions();
+        if (n > 0) log.info("[GOALS] folded contribution rows into {} goals' running totals", n);
     }
 
         @Transactional
@@ -1,5 +1,6 @@
 package com.example.fintrack.service;
 
+import com.example.fintrack.events.TransactionsChangedEvent;
 import com.example.fintrack.model.Category;
 import com.example.fintrack.model.Transaction;
 import com.example.fintrack.model.User;
@@ -7,7 +8,9 @@ import com.example.fintrack.repository.TransactionRepository;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
@@ -15,6 +18,7 @@ import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -40,8 +44,16 @@ public class ImportService {
     public record CommitResult(int imported, int skippedDuplicates, int failed) {}
 
     private final TransactionRepository txRepo;
-
-    public ImportService(TransactionRepository txRepo) { this.txRepo = txRepo; }
+    private final ApplicationEventPublisher appEvents;
+    private final BillMatcher billMatcher;
+    private final BudgetSpendService budgetSpend;
+    private final TransactionTemplate tx;
+
+    public ImportService(TransactionRepository txRepo, ApplicationEventPublisher appEvents, BillMatcher billMatcher,
+                         BudgetSpendService budgetSpend, TransactionTemplate tx) {
+        this.txRepo = txRepo; this.appEvents = appEvents; this.billMatcher = billMatcher;
+        this.budgetSpend = budgetSpend; this.tx = tx;
+    }
 
     // Simple in-memory staging (TTL implicit: we’ll just overwrite; fine for dev)
     private static final Map<String, List<Row>> STAGED = new ConcurrentHashMap<>();
@@ -81,6 +93,8 @@ public class ImportService {
         if (staged == null || staged.isEmpty()) return new CommitResult(0,0,0);
 
         int imported=0, dup=0, failed=0;
+        Set<YearMonth> touched = new HashSet<>();
+        List<Transaction> saved = new ArrayList<>();
         for (int idx = 0; idx < staged.size(); idx++) {
             if (selectedIndexes != null && !selectedIndexes.contains(idx)) continue; // skip unselected
             Row row = staged.get(idx);
@@ -102,12 +116,19 @@ public class ImportService {
                 t.setNote(row.description);
                 Category cat = resolveCategory(row.category, row.amount);
                 t.setCategory(cat);
-                txRepo.save(t);
+                saved.add(tx.execute(s -> {
+                    Transaction out = txRepo.save(t);
+                    budgetSpend.recordCreated(out);
+                    return out;
+                }));
+                touched.add(YearMonth.from(t.getDate()));
                 imported++;
             } catch (Exception e) { failed++; }
         }
         // optional: clear staged
         STAGED.remove(uploadId);
+        if (!touched.isEmpty()) appEvents.publishEvent(new TransactionsChangedEvent(user.getId(), touched));
+        billMatcher.reconcile(user.getId(), saved);
         return new CommitResult(imported, dup, failed);
     }
 
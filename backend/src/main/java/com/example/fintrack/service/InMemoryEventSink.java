@@ -0,0 +1,40 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.model.EventOutbox;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Keeps delivered events in memory ({@code app.events.sink=memory}); for tests and broker-less runs. */
+@Component
+@ConditionalOnProperty(name = "app.events.sink", havingValue = "memory")
+public class InMemoryEventSink implements EventSink {
+
+    public record Delivered(String topic, String key, String payload) {}
+
+    private final List<Delivered> delivered = new ArrayList<>(); // guarded by itself
+
+    @Override
+    public Map<Long, Exception> send(List<EventOutbox> batch) {
+        synchronized (delivered) {
+            for (EventOutbox e : batch) delivered.add(new Delivered(e.getTopic(), e.getEventKey(), e.getPayload()));
+        }
+        return Map.of();
+    }
+
+    /** Everything delivered so far, in delivery order. */
+    public List<Delivered> delivered() {
+        synchronized (delivered) {
+            return List.copyOf(delivered);
+        }
+    }
+
+    public void clear() {
+        synchronized (delivered) {
+            delivered.clear();
+        }
+    }
+}
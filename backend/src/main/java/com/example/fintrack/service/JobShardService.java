@@ -0,0 +1,183 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.model.JobShard;
+import com.example.fintrack.repository.JobShardRepository;
+import com.example.fintrack.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Splits batch runs into user-id shards and processes them cluster-wide. The (clustered) Quartz
+ * trigger fires on one replica, which only {@link #plan}s the run; every replica then polls
+ * job_shards and claims work with SKIP LOCKED, so adding nodes shortens the run. Shards are
+ * leased: the owner renews the lease every renew-ms while it works (however long a page takes),
+ * so only a replica that dies mid-shard loses it, after lease-ms; another resumes from the
+ * shard's last checkpoint.
+ */
+@Service
+public class JobShardService {
+    private static final Logger log = LoggerFactory.getLogger(JobShardService.class);
+
+    private final JobShardRepository shards;
+    private final UserRepository userRepo;
+    private final TransactionTemplate tx;
+    private final Map<String, ShardHandler> handlers;
+    private final long leaseMs;
+    private final int maxAttempts;
+    private final String owner;
+
+    private final ExecutorService runners;
+    private final Semaphore slots;
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    public JobShardService(JobShardRepository shards, UserRepository userRepo, TransactionTemplate tx,
+                           List<ShardHandler> handlers,
+                           @Value("${app.jobs.shards.parallel:2}") int parallel,
+                           @Value("${app.jobs.shards.lease-ms:300000}") long leaseMs,
+                           @Value("${app.jobs.shards.max-attempts:3}") int maxAttempts,
+                           @Value("${app.jobs.shards.renew-ms:60000}") long renewMs) {
+        this.shards = shards; this.userRepo = userRepo; this.tx = tx;
+        this.handlers = handlers.stream().collect(Collectors.toMap(ShardHandler::jobName, Function.identity()));
+        this.leaseMs = leaseMs; this.maxAttempts = maxAttempts;
+        if (renewMs * 2 > leaseMs) {
+            log.warn("[SHARDS] renew-ms {} is more than half of lease-ms {}; a slow renewal can lose the lease", renewMs, leaseMs);
+        }
+        this.owner = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.slots = new Semaphore(parallel);
+        AtomicInteger n = new AtomicInteger();
+        this.runners = Executors.newFixedThreadPool(parallel, r -> {
+            Thread t = new Thread(r, "shard-runner-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() { runners.shutdownNow(); }
+
+    /** Create the shards for one run of {@code jobName}; a no-op if the run was already planned. */
+    public int plan(String jobName, String runKey, int shardSize) {
+        if (shards.existsByJobNameAndRunKey(jobName, runKey)) return 0;
+        List<Long> starts = userRepo.shardStarts(shardSize);
+        List<JobShard> rows = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            long to = i + 1 < starts.size() ? starts.get(i + 1) - 1 : Long.MAX_VALUE; // last shard takes new sign-ups
+            rows.add(new JobShard(jobName, runKey, i, starts.get(i), to));
+        }
+        try {
+            tx.executeWithoutResult(s -> shards.saveAll(rows));
+        } catch (DataIntegrityViolationException race) {
+            return 0; // planned concurrently elsewhere
+        }
+        log.info("[SHARDS] planned {} run {}: {} shards of {} users", jobName, runKey, rows.size(), shardSize);
+        return rows.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.jobs.shards.poll-ms:5000}")
+    public void poll() {
+        while (slots.tryAcquire()) {
+            JobShard shard;
+            try {
+                shard = claim();
+            } catch (RuntimeException e) {
+                slots.release();
+                log.warn("[SHARDS] claim failed: {}", e.toString());
+                return;
+            }
+            if (shard == null) {
+                slots.release();
+                return;
+            }
+            runners.execute(() -> {
+                try {
+                    run(shard);
+                } finally {
+                    slots.release();
+                }
+            });
+        }
+    }
+
+    /** Keep leases of in-progress shards alive between checkpoints. */
+    @Scheduled(fixedDelayString = "${app.jobs.shards.renew-ms:60000}")
+    public void renewLeases() {
+        if (running.isEmpty()) return;
+        List<Long> ids = List.copyOf(running);
+        try {
+            Integer n = tx.execute(s -> shards.renew(ids, owner, LocalDateTime.now().plusNanos(leaseMs * 1_000_000)));
+            if (n != null && n < ids.size()) log.warn("[SHARDS] renewed {} of {} leases; the rest moved on", n, ids.size());
+        } catch (RuntimeException e) {
+            log.warn("[SHARDS] lease renewal failed: {}", e.toString());
+        }
+    }
+
+    private JobShard claim() {
+        return tx.execute(s -> {
+            LocalDateTime now = LocalDateTime.now();
+            JobShard shard = shards.lockClaimable(now).orElse(null);
+            if (shard == null) return null;
+            if (shard.getAttempts() >= maxAttempts) {
+                shards.claim(shard.getId(), owner, now);
+                shards.finish(shard.getId(), owner, JobShard.Status.FAILED);
+                log.error("[SHARDS] {} run {} shard {} failed {} times, giving up",
+                        shard.getJobName(), shard.getRunKey(), shard.getShardNo(), shard.getAttempts());
+                return null;
+            }
+            shards.claim(shard.getId(), owner, now.plusNanos(leaseMs * 1_000_000));
+            return shard;
+        });
+    }
+
+    private void run(JobShard shard) {
+        ShardHandler handler = handlers.get(shard.getJobName());
+        if (handler == null) {
+            log.warn("[SHARDS] no handler for job {}, leaving shard {} to expire", shard.getJobName(), shard.getId());
+            return;
+        }
+        ShardHandler.Progress progress = (lastUserId, sent, failed) -> {
+            Integer n = tx.execute(s -> shards.checkpoint(shard.getId(), owner, lastUserId, sent, failed,
+                    LocalDateTime.now().plusNanos(leaseMs * 1_000_000)));
+            return n != null && n > 0;
+        };
+        running.add(shard.getId());
+        try {
+            handler.process(shard, progress);
+            tx.executeWithoutResult(s -> shards.finish(shard.getId(), owner, JobShard.Status.DONE));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // shutting down; the lease will expire and another node resumes
+        } catch (Exception e) {
+            // leave it RUNNING; once the lease lapses it is retried (up to max-attempts)
+            log.warn("[SHARDS] {} run {} shard {} failed: {}", shard.getJobName(), shard.getRunKey(), shard.getShardNo(), e.toString());
+        } finally {
+            running.remove(shard.getId());
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.model.EventOutbox;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends the whole batch without waiting between records, so the producer can group them, then
+ * waits for every acknowledgement against one deadline. Payloads are written through verbatim
+ * ({@link RawValue}), so consumers get exactly the JSON EventPublisher stored. A send that throws
+ * (typically no metadata within max.block.ms: broker unreachable) fails the rest of the batch
+ * unsent, rather than blocking that long once per record.
+ */
+@Component
+@ConditionalOnProperty(name = "app.events.sink", havingValue = "kafka", matchIfMissing = true)
+public class KafkaEventSink implements EventSink {
+
+    private final KafkaTemplate<String, Object> kafka;
+    private final long timeoutMs;
+
+    public KafkaEventSink(KafkaTemplate<String, Object> kafka,
+                          @Value("${app.events.outbox.send-timeout-ms:35000}") long timeoutMs) {
+        this.kafka = kafka; this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public Map<Long, Exception> send(List<EventOutbox> batch) throws InterruptedException {
+        Map<Long, Exception> failed = new HashMap<>();
+        Map<Long, CompletableFuture<SendResult<String, Object>>> pending = new LinkedHashMap<>();
+        Exception broken = null;
+        for (EventOutbox e : batch) {
+            if (broken != null) {
+                failed.put(e.getId(), broken);
+                continue;
+            }
+            try {
+                pending.put(e.getId(), kafka.send(e.getTopic(), e.getEventKey(), new RawValue(e.getPayload())));
+            } catch (Exception ex) {
+                failed.put(e.getId(), ex);
+                broken = ex;
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        for (var p : pending.entrySet()) {
+            try {
+                p.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException ex) {
+                failed.put(p.getKey(), ex.getCause() instanceof Exception cause ? cause : ex);
+            } catch (TimeoutException ex) {
+                failed.put(p.getKey(), ex);
+            }
+        }
+        return failed;
+    }
+}
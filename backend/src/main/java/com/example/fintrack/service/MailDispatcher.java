@@ -0,0 +1,173 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.model.MailOutbox;
+import com.example.fintrack.repository.MailOutboxRepository;
+import jakarta.activation.DataHandler;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.util.ByteArrayDataSource;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains mail_outbox. Each batch is claimed with SKIP LOCKED and leased (next_attempt_at pushed
+ * out) in a short transaction, then sent with one {@code send(MimeMessage...)} call, which reuses
+ * a single SMTP connection. Failed rows back off exponentially and go DEAD after max-attempts.
+ *
+ * <p>Runs on a thread of its own: pacing ({@link SmtpRateLimiter}) deliberately sleeps between
+ * batches, which must not hold up the shared scheduler.
+ */
+@Component
+public class MailDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private final MailOutboxRepository outbox;
+    private final JavaMailSender mailSender;
+    private final SmtpRateLimiter smtpLimiter;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final int maxBatchesPerTick;
+    private final int maxAttempts;
+    private final long leaseMs;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final int retainDays;
+    private final long pollMs;
+    private final ScheduledExecutorService dispatchThread = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "mail-dispatch");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public MailDispatcher(MailOutboxRepository outbox, JavaMailSender mailSender, SmtpRateLimiter smtpLimiter,
+                          TransactionTemplate tx,
+                          @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                          @Value("${app.mail.outbox.max-batches-per-tick:20}") int maxBatchesPerTick,
+                          @Value("${app.mail.outbox.max-attempts:6}") int maxAttempts,
+                          @Value("${app.mail.outbox.lease-ms:120000}") long leaseMs,
+                          @Value("${app.mail.outbox.backoff-ms:30000}") long backoffMs,
+                          @Value("${app.mail.outbox.max-backoff-ms:3600000}") long maxBackoffMs,
+                          @Value("${app.mail.outbox.retain-days:7}") int retainDays,
+                          @Value("${app.mail.outbox.poll-ms:1000}") long pollMs) {
+        this.outbox = outbox; this.mailSender = mailSender; this.smtpLimiter = smtpLimiter; this.tx = tx;
+        this.batchSize = batchSize; this.maxBatchesPerTick = maxBatchesPerTick; this.maxAttempts = maxAttempts;
+        this.leaseMs = leaseMs; this.backoffMs = backoffMs; this.maxBackoffMs = maxBackoffMs;
+        this.retainDays = retainDays; this.pollMs = pollMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        dispatchThread.scheduleWithFixedDelay(this::dispatch, pollMs, pollMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() { dispatchThread.shutdownNow(); }
+
+    public void dispatch() {
+        try {
+            for (int i = 0; i < maxBatchesPerTick; i++) {
+                if (dispatchBatch() < batchSize) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("[MAIL] dispatch failed: {}", e.toString());
+        }
+    }
+
+    @Scheduled(cron = "${app.mail.outbox.purge-cron:0 15 * * * *}")
+    public void purgeSent() {
+        Integer n = tx.execute(s -> outbox.deleteSentBefore(LocalDateTime.now().minusDays(retainDays)));
+        if (n != null && n > 0) log.info("[MAIL] purged {} sent outbox rows", n);
+    }
+
+    /** Claim, send and record one batch; returns how many rows were claimed. */
+    int dispatchBatch() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        List<MailOutbox> batch = tx.execute(s -> {
+            List<MailOutbox> rows = outbox.lockDue(now, batchSize);
+            if (!rows.isEmpty()) outbox.lease(rows.stream().map(MailOutbox::getId).toList(), now.plusNanos(leaseMs * 1_000_000));
+            return rows;
+        });
+        if (batch == null || batch.isEmpty()) return 0;
+
+        Map<MimeMessage, MailOutbox> byMessage = new IdentityHashMap<>();
+        Map<MailOutbox, Exception> failed = new IdentityHashMap<>();
+        Set<MailOutbox> dead = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (MailOutbox m : batch) {
+            try {
+                byMessage.put(toMessage(m), m);
+            } catch (MessagingException | RuntimeException e) {
+                failed.put(m, e); // malformed address etc. — retrying won't help
+                dead.add(m);
+            }
+        }
+
+        if (!byMessage.isEmpty()) {
+            smtpLimiter.acquire(byMessage.size());
+            try {
+                mailSender.send(byMessage.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                Map<Object, Exception> perMessage = e.getFailedMessages();
+                if (perMessage.isEmpty()) byMessage.values().forEach(m -> failed.put(m, e));
+                else perMessage.forEach((msg, ex) -> {
+                    MailOutbox m = byMessage.get(msg);
+                    if (m != null) failed.put(m, ex);
+                });
+            } catch (MailException e) {
+                byMessage.values().forEach(m -> failed.put(m, e));
+            }
+        }
+
+        List<Long> sent = batch.stream().filter(m -> !failed.containsKey(m)).map(MailOutbox::getId).toList();
+        LocalDateTime done = LocalDateTime.now();
+        tx.executeWithoutResult(s -> {
+            if (!sent.isEmpty()) outbox.markSent(sent, done);
+            failed.forEach((m, e) -> {
+                String error = e.toString();
+                if (dead.contains(m) || m.getAttempts() + 1 >= maxAttempts) {
+                    outbox.markDead(m.getId(), truncate(error));
+                    log.error("[MAIL] giving up on outbox {} to {}: {}", m.getId(), m.getRecipient(), error);
+                } else {
+                    outbox.retryLater(m.getId(), done.plusNanos(backoff(m.getAttempts()) * 1_000_000), truncate(error));
+                }
+            });
+        });
+        if (!failed.isEmpty()) log.warn("[MAIL] batch of {}: {} sent, {} failed", batch.size(), sent.size(), failed.size());
+        return batch.size();
+    }
+
+    private MimeMessage toMessage(MailOutbox m) throws MessagingException {
+        MimeMessage msg = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(msg, "UTF-8");
+        helper.setTo(m.getRecipient());
+        helper.setSubject(m.getSubject());
+        msg.setDataHandler(new DataHandler(new ByteArrayDataSource(m.getBody(), m.getContentType())));
+        return msg;
+    }
+
+    private long backoff(int attempts) {
+        long d = backoffMs << Math.min(attempts, 20);
+        return Math.min(d, maxBackoffMs);
+    }
+
+    private static String truncate(String s) {
+        return s.length() > 1000 ? s.substring(0, 1000) : s;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.model.MailOutbox;
+import com.example.fintrack.repository.MailOutboxRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Enqueues outgoing mail. Joins the caller's transaction when there is one, so the message
+ * is only sent if the work that produced it commits; MailDispatcher does the actual SMTP.
+ */
+@Service
+public class MailOutboxService {
+
+    public static final String HTML = "text/html; charset=UTF-8";
+    public static final String TEXT = "text/plain; charset=UTF-8";
+
+    private final MailOutboxRepository outbox;
+
+    public MailOutboxService(MailOutboxRepository outbox) { this.outbox = outbox; }
+
+    @Transactional
+    public MailOutbox enqueueHtml(String to, String subject, byte[] html) {
+        return enqueue(to, subject, HTML, html);
+    }
+
+    @Transactional
+    public MailOutbox enqueueText(String to, String subject, String text) {
+        return enqueue(to, subject, TEXT, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** True if queued; false if this job run already queued mail for the user. */
+    @Transactional
+    public boolean enqueueHtmlOnce(String job, String runKey, Long userId, String to, String subject, byte[] html) {
+        return outbox.insertOnce(job, runKey, userId, to, subject, HTML, html, LocalDateTime.now()) > 0;
+    }
+
+    public boolean alreadyQueued(String job, String runKey, Long userId) {
+        return outbox.existsByJobNameAndRunKeyAndUserId(job, runKey, userId);
+    }
+
+    private MailOutbox enqueue(String to, String subject, String contentType, byte[] body) {
+        MailOutbox m = new MailOutbox();
+        m.setRecipient(to);
+        m.setSubject(subject);
+        m.setContentType(contentType);
+        m.setBody(body);
+        return outbox.save(m);
+    }
+}
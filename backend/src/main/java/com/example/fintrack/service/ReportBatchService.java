@@ -0,0 +1,151 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.model.JobFailure;
+import com.example.fintrack.model.JobShard;
+import com.example.fintrack.model.User;
+import com.example.fintrack.repository.JobFailureRepository;
+import com.example.fintrack.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders the monthly report for the users of one shard and queues it in the mail outbox. Users
+ * are paged by id and fanned out over a bounded worker pool; after each page the shard checkpoint
+ * advances, so a shard picked up after a crash resumes from the last completed page. Users of an
+ * unfinished page are redone, but the outbox key (job, run, user) keeps their mail from being queued twice.
+ */
+@Service
+public class ReportBatchService implements ShardHandler {
+    private static final Logger log = LoggerFactory.getLogger(ReportBatchService.class);
+    public static final String JOB_NAME = "monthlyReport";
+
+    // per-task watchdog states
+    private static final int RUNNING = 0, DONE = 1, INTERRUPTING = 2, INTERRUPTED = 3;
+
+    private final UserRepository userRepo;
+    private final ReportService reportService;
+    private final MailOutboxService mail;
+    private final JobFailureRepository failures;
+    private final int pageSize;
+    private final long userTimeoutMs;
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "report-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ReportBatchService(UserRepository userRepo, ReportService reportService, MailOutboxService mail,
+                            JobFailureRepository failures,
+                            @Value("${app.reports.concurrency:16}") int concurrency,
+                            @Value("${app.reports.page-size:500}") int pageSize,
+                            @Value("${app.reports.user-timeout-ms:30000}") long userTimeoutMs) {
+        this.userRepo = userRepo;
+        this.reportService = reportService;
+        this.mail = mail;
+        this.failures = failures;
+        this.pageSize = pageSize;
+        this.userTimeoutMs = userTimeoutMs;
+        AtomicInteger n = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "report-worker-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    @Override
+    public String jobName() { return JOB_NAME; }
+
+    @Override
+    public void process(JobShard shard, Progress progress) throws InterruptedException {
+        LocalDate runDate = LocalDate.parse(shard.getRunKey());
+        int year = runDate.getYear();
+        int month = runDate.getMonthValue();
+        String subject = "Monthly Finance Report — " + Month.of(month).getDisplayName(TextStyle.SHORT, Locale.ENGLISH) + " " + year;
+        long last = shard.getLastUserId();
+        if (last >= shard.getFromUserId()) log.info("[REPORT] resuming shard {} after user {}", shard.getShardNo(), last);
+
+        List<User> page;
+        while (!(page = userRepo.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                last, shard.getToUserId(), PageRequest.of(0, pageSize))).isEmpty()) {
+            List<Future<?>> pending = new ArrayList<>(page.size());
+            for (User user : page) {
+                pending.add(workers.submit(() -> { sendReport(user, shard.getRunKey(), year, month, subject); return null; }));
+            }
+
+            int sent = 0;
+            List<JobFailure> failed = new ArrayList<>();
+            for (int i = 0; i < page.size(); i++) {
+                User user = page.get(i);
+                try {
+                    pending.get(i).get();
+                    sent++;
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    log.warn("[REPORT] failed for user {}: {}", user.getId(), cause.toString());
+                    failed.add(new JobFailure(JOB_NAME, shard.getRunKey(), user.getId(), cause.toString()));
+                } catch (InterruptedException ex) {
+                    pending.forEach(f -> f.cancel(true));
+                    throw ex;
+                }
+            }
+
+            failures.saveAll(failed);
+            last = page.get(page.size() - 1).getId();
+            if (!progress.checkpoint(last, sent, failed.size())) {
+                log.warn("[REPORT] lost lease on shard {} of run {}, stopping", shard.getShardNo(), shard.getRunKey());
+                return;
+            }
+        }
+        log.info("[REPORT] shard {} of run {} done", shard.getShardNo(), shard.getRunKey());
+    }
+
+    /**
+     * Runs on a worker; interrupted by the watchdog if it exceeds the per-user timeout. The task and
+     * its watchdog race on one CAS: a task that finishes first disarms the watchdog, and if the
+     * watchdog wins, the worker waits for its interrupt to land and clears it, so a late interrupt
+     * can't hit the next user's report. Interrupts from anywhere else (shutdown) are left alone.
+     */
+    private void sendReport(User user, String runKey, int year, int month, String subject) throws Exception {
+        if (mail.alreadyQueued(JOB_NAME, runKey, user.getId())) return; // done before a resume
+        Thread self = Thread.currentThread();
+        AtomicInteger state = new AtomicInteger(RUNNING);
+        ScheduledFuture<?> guard = watchdog.schedule(() -> {
+            if (state.compareAndSet(RUNNING, INTERRUPTING)) {
+                self.interrupt();
+                state.set(INTERRUPTED);
+            }
+        }, userTimeoutMs, TimeUnit.MILLISECONDS);
+        try {
+            byte[] html = reportService.renderMonthlyHtml(user, year, month);
+            if (state.get() != RUNNING) throw new TimeoutException("render exceeded " + userTimeoutMs + " ms");
+            mail.enqueueHtmlOnce(JOB_NAME, runKey, user.getId(), user.getEmail(), subject, html);
+        } finally {
+            guard.cancel(false);
+            if (!state.compareAndSet(RUNNING, DONE)) {
+                while (state.get() != INTERRUPTED) Thread.onSpinWait(); // only as long as interrupt() takes
+                Thread.interrupted();
+            }
+        }
+    }
+}
@@ -1,8 +1,8 @@
 
 package com.example.fintrack.service;
 
-import com.example.fintrack.dto.ForecastRequest;
-import com.example.fintrack.dto.SavingsMonth;
+import com.example.fintrack.html.HtmlMail;
+import com.example.fintrack.html.HtmlWriter;
 import com.example.fintrack.model.Budget;
 import com.example.fintrack.model.Transaction;
 import com.example.fintrack.model.Category;
@@ -10,157 +10,145 @@ import com.example.fintrack.model.User;
 import com.example.fintrack.repository.BudgetRepository;
 import com.example.fintrack.repository.TransactionRepository;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.format.TextStyle;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
 
     private final TransactionRepository txRepo;
     private final BudgetRepository budgetRepo;
-    private final RestClient mlClient;
+    private final ForecastService forecasts;
 
-    public ReportService(TransactionRepository txRepo, BudgetRepository budgetRepo, RestClient mlClient) {
+    public ReportService(TransactionRepository txRepo, BudgetRepository budgetRepo, ForecastService forecasts) {
         this.txRepo = txRepo;
         this.budgetRepo = budgetRepo;
-        this.mlClient = mlClient;
+        this.forecasts = forecasts;
     }
 
-    private static String tdRight(String s) {
-        return "<td style='text-align:right'>" + s + "</td>";
+    /**
+     * Everything the monthly report shows, loaded up front so rendering does no I/O.
+     * {@code forecastNext} is null when the live forecast is left out (snapshots).
+     */
+    public record MonthlyReport(int year, int month, BigDecimal income, BigDecimal expense, BigDecimal savings,
+                                Double forecastNext, List<Row> rows) {}
+
+    public record Row(String category, BigDecimal limit, BigDecimal spent, BigDecimal remaining, double pct) {}
+
+    public MonthlyReport monthly(User user, int year, int month) {
+        return monthly(user, year, month, true);
     }
 
-    public String renderMonthlyHtml(User user, int year, int month) {
+    /**
+     * @param withForecast include the next-month forecast; it reflects the latest months, not
+     *                     this one, so renders that are stored for good must leave it out
+     */
+    public MonthlyReport monthly(User user, int year, int month, boolean withForecast) {
         LocalDate start = LocalDate.of(year, month, 1);
         LocalDate end = start.plusMonths(1).minusDays(1);
 
         List<Transaction> txs = txRepo.findByUserAndDateBetween(user, start, end);
-        BigDecimal income = sum(txs.stream().filter(t -> t.getCategory() == Category.INCOME));
-        BigDecimal expense = sum(txs.stream().filter(t -> t.getCategory() != Category.INCOME));
-        BigDecimal savings = income.subtract(expense);
-
-        Map<String, BigDecimal> byCategory = new LinkedHashMap<>();
-        for (Category c : Category.values()) {
-            if (c == Category.INCOME) continue;
-            BigDecimal sum = sum(txs.stream().filter(t -> t.getCategory() == c));
-            byCategory.put(c.name(), sum);
+        BigDecimal income = BigDecimal.ZERO;
+        Map<Category, BigDecimal> byCategory = new EnumMap<>(Category.class);
+        for (Transaction t : txs) {
+            if (t.getCategory() == Category.INCOME) income = income.add(t.getAmount());
+            else byCategory.merge(t.getCategory(), t.getAmount(), BigDecimal::add);
         }
+        BigDecimal expense = byCategory.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        List<Budget> budgets = budgetRepo.findByUserAndYearAndMonth(user, year, month);
-        Map<String, BigDecimal> limits = budgets.stream().collect(Collectors.toMap(
-                b -> b.getCategory().name(), Budget::getLimitAmount, (a,b)->b, LinkedHashMap::new));
+        Map<Category, BigDecimal> limits = new EnumMap<>(Category.class);
+        for (Budget b : budgetRepo.findByUserAndYearAndMonth(user, year, month)) {
+            limits.put(b.getCategory(), b.getLimitAmount());
+        }
 
-        List<Map<String,Object>> rows = new ArrayList<>();
-        for (var e : byCategory.entrySet()) {
-            BigDecimal spent = e.getValue();
-            BigDecimal limit = limits.getOrDefault(e.getKey(), BigDecimal.ZERO);
-            BigDecimal remaining = limit.subtract(spent);
+        List<Row> rows = new ArrayList<>();
+        for (Category c : Category.values()) {
+            if (c == Category.INCOME) continue;
+            BigDecimal spent = byCategory.getOrDefault(c, BigDecimal.ZERO);
+            BigDecimal limit = limits.getOrDefault(c, BigDecimal.ZERO);
             double pct = limit.compareTo(BigDecimal.ZERO) == 0 ? 0.0 :
                     spent.divide(limit, 4, RoundingMode.HALF_UP).doubleValue();
-            rows.add(Map.of(
-                    "category", e.getKey(),
-                    "limit", limit,
-                    "spent", spent,
-                    "remaining", remaining,
-                    "pct", pct
-            ));
-        }
-
-        double forecastNext = forecastNextSavings(user);
-
-        String monthLabel = Month.of(month).getDisplayName(TextStyle.FULL, Locale.ENGLISH) + " " + year;
-        StringBuilder html = new StringBuilder();
-        html.append("<!doctype html><html><head><meta charset='utf-8'><style>")
-            .append("body{font-family:Inter,system-ui,-apple-system,Segoe UI,Roboto,Arial,sans-serif;color:#222;margin:0;padding:24px;background:#f6f7f8}")
-            .append(".card{background:#fff;border-radius:14px;box-shadow:0 1px 8px rgba(0,0,0,.06);padding:16px}")
-            .append(".grid{display:grid;gap:12px;grid-template-columns:repeat(4,1fr)}")
-            .append("table{width:100%;border-collapse:collapse;font-size:14px}")
-            .append("th,td{padding:10px;border-top:1px solid #eee;text-align:left}")
-            .append("th{background:#fafafa;text-transform:uppercase;font-size:12px;letter-spacing:.03em;color:#666}")
-            .append(".bar{height:8px;background:#eee;border-radius:6px;overflow:hidden}")
-            .append(".fill{height:8px;background:#111;border-radius:6px}")
-            .append("</style></head><body>");
-
-        html.append("<h2 style='margin:0 0 12px 0'>Monthly Finance Report — ").append(monthLabel).append("</h2>");
-
-        html.append("<div class='grid' style='margin:12px 0 16px 0'>");
-        html.append(stat("Income", income));
-        html.append(stat("Expenses", expense));
-        html.append(stat("Savings", savings));
-        html.append(stat("Forecast (Next Month)", BigDecimal.valueOf(forecastNext)));
-        html.append("</div>");
-
-        html.append("<div class='card'>");
-        html.append("<h3 style='margin:4px 0 8px 0'>Budgets vs Spend</h3>");
-        html.append("<table><thead><tr><th>Category</th><th style='text-align:right'>Limit</th><th style='text-align:right'>Spent</th><th style='text-align:right'>Remaining</th><th>Progress</th></tr></thead><tbody>");
-        for (var row : rows) {
-            String cat = (String)row.get("category");
-            BigDecimal limit = (BigDecimal)row.get("limit");
-            BigDecimal spent = (BigDecimal)row.get("spent");
-            BigDecimal remaining = (BigDecimal)row.get("remaining");
-            double pct = (double)row.get("pct");
-            int pct100 = (int)Math.round(Math.max(0, Math.min(100, pct*100)));
-            html.append("<tr>")
-                .append("<td>").append(cat).append("</td>")
-                .append(tdRight("₹ " + fmt(limit)))
-                .append(tdRight("₹ " + fmt(spent)))
-                .append(tdRight("₹ " + fmt(remaining)))
-                .append("<td><div class='bar'><div class='fill' style='width:").append(pct100).append("%'></div></div></td>")
-                .append("</tr>");
+            rows.add(new Row(c.name(), limit, spent, limit.subtract(spent), pct));
         }
-        html.append("</tbody></table></div>");
 
-        html.append("<p style='color:#666;margin-top:10px'>Tip: set monthly budgets in the app to track progress. This email was generated automatically.</p>");
-        html.append("</body></html>");
-        return html.toString();
+        Double forecastNext = withForecast ? forecasts.forecast(user).nextMonthSavings() : null;
+        return new MonthlyReport(year, month, income, expense, income.subtract(expense), forecastNext, rows);
     }
 
-    private String stat(String label, BigDecimal value) {
-        return "<div class='card'><div style='font-size:12px;color:#666'>" + label + "</div>"
-                + "<div style='font-size:20px;font-weight:600'>₹ " + fmt(value) + "</div></div>";
+    /** Render into a reused per-thread buffer; for mail bodies. */
+    public byte[] renderMonthlyHtml(User user, int year, int month) {
+        MonthlyReport report = monthly(user, year, month);
+        return HtmlMail.render(w -> write(report, w));
     }
 
-    private static BigDecimal sum(java.util.stream.Stream<Transaction> s) {
-        return s.map(Transaction::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    /** Stream the report straight to {@code out} (e.g. the HTTP response). */
+    public void writeMonthlyHtml(MonthlyReport report, OutputStream out) {
+        HtmlWriter w = new HtmlWriter(out);
+        write(report, w);
+        w.flush();
     }
 
-    private static String fmt(BigDecimal v) {
-        if (v == null) return "0";
-        return v.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    /* ---------------- template ---------------- */
+
+    private static final byte[] HEAD = HtmlWriter.fragment(
+            "<!doctype html><html><head><meta charset='utf-8'><style>"
+            + "body{font-family:Inter,system-ui,-apple-system,Segoe UI,Roboto,Arial,sans-serif;color:#222;margin:0;padding:24px;background:#f6f7f8}"
+            + ".card{background:#fff;border-radius:14px;box-shadow:0 1px 8px rgba(0,0,0,.06);padding:16px}"
+            + ".grid{display:grid;gap:12px;grid-template-columns:repeat(4,1fr)}"
+            + "table{width:100%;border-collapse:collapse;font-size:14px}"
+            + "th,td{padding:10px;border-top:1px solid #eee;text-align:left}"
+            + "th{background:#fafafa;text-transform:uppercase;font-size:12px;letter-spacing:.03em;color:#666}"
+            + ".bar{height:8px;background:#eee;border-radius:6px;overflow:hidden}"
+            + ".fill{height:8px;background:#111;border-radius:6px}"
+            + "</style></head><body>"
+            + "<h2 style='margin:0 0 12px 0'>Monthly Finance Report — ");
+    private static final byte[] SPACE = HtmlWriter.fragment(" ");
+    private static final byte[] GRID_OPEN = HtmlWriter.fragment("</h2><div class='grid' style='margin:12px 0 16px 0'>");
+    private static final byte[] STAT_OPEN = HtmlWriter.fragment("<div class='card'><div style='font-size:12px;color:#666'>");
+    private static final byte[] STAT_VALUE = HtmlWriter.fragment("</div><div style='font-size:20px;font-weight:600'>₹ ");
+    private static final byte[] STAT_CLOSE = HtmlWriter.fragment("</div></div>");
+    private static final byte[] TABLE_OPEN = HtmlWriter.fragment(
+            "</div><div class='card'><h3 style='margin:4px 0 8px 0'>Budgets vs Spend</h3>"
+            + "<table><thead><tr><th>Category</th><th style='text-align:right'>Limit</th><th style='text-align:right'>Spent</th>"
+            + "<th style='text-align:right'>Remaining</th><th>Progress</th></tr></thead><tbody>");
+    private static final byte[] ROW_OPEN = HtmlWriter.fragment("<tr><td>");
+    private static final byte[] CELL_MONEY = HtmlWriter.fragment("</td><td style='text-align:right'>₹ ");
+    private static final byte[] BAR_OPEN = HtmlWriter.fragment("</td><td><div class='bar'><div class='fill' style='width:");
+    private static final byte[] ROW_CLOSE = HtmlWriter.fragment("%'></div></div></td></tr>");
+    private static final byte[] TAIL = HtmlWriter.fragment(
+            "</tbody></table></div>"
+            + "<p style='color:#666;margin-top:10px'>Tip: set monthly budgets in the app to track progress. This email was generated automatically.</p>"
+            + "</body></html>");
+    private static final String[] MONTH_LABELS = new String[13];
+    static {
+        for (Month m : Month.values()) MONTH_LABELS[m.getValue()] = m.getDisplayName(TextStyle.FULL, Locale.ENGLISH);
     }
 
-    public double forecastNextSavings(User user) {
-        LocalDate now = LocalDate.now().withDayOfMonth(1);
-        List<SavingsMonth> months = new ArrayList<>();
-        for (int i = 6; i >= 1; i--) {
-            LocalDate start = now.minusMonths(i);
-            LocalDate end = start.plusMonths(1).minusDays(1);
-            List<Transaction> txs = txRepo.findByUserAndDateBetween(user, start, end);
-            BigDecimal incomeBD = sum(txs.stream().filter(t -> t.getCategory() == Category.INCOME));
-            BigDecimal expenseBD = sum(txs.stream().filter(t -> t.getCategory() != Category.INCOME));
-            double income = incomeBD.doubleValue();
-            double expense = expenseBD.doubleValue();
-            if (income > 0.0 || expense > 0.0) {
-                months.add(new SavingsMonth(start.getYear(), start.getMonthValue(), income, expense));
-            }
-        }
-        if (months.isEmpty()) return 0.0;
-
-        ForecastRequest payload = new ForecastRequest(months);
-        try {
-            Map resp = mlClient.post().uri("/predict/savings").body(payload).retrieve().toEntity(Map.class).getBody();
-            Object v = resp.get("next_month_savings");
-            return v instanceof Number ? ((Number)v).doubleValue() : 0.0;
-        } catch (Exception ex) {
-            double avg = months.stream().mapToDouble(m -> m.income() - m.expense()).average().orElse(0.0);
-            return Math.round(avg * 100.0) / 100.0;
+    private static void write(MonthlyReport r, HtmlWriter w) {
+        w.raw(HEAD).text(MONTH_LABELS[r.month()]).raw(SPACE).num(r.year()).raw(GRID_OPEN);
+        stat(w, "Income", r.income());
+        stat(w, "Expenses", r.expense());
+        stat(w, "Savings", r.savings());
+        if (r.forecastNext() != null) stat(w, "Forecast (Next Month)", BigDecimal.valueOf(r.forecastNext()));
+        w.raw(TABLE_OPEN);
+        for (Row row : r.rows()) {
+            int pct100 = (int) Math.round(Math.max(0, Math.min(100, row.pct() * 100)));
+            w.raw(ROW_OPEN).text(row.category())
+             .raw(CELL_MONEY).money(row.limit())
+             .raw(CELL_MONEY).money(row.spent())
+             .raw(CELL_MONEY).money(row.remaining())
+             .raw(BAR_OPEN).num(pct100).raw(ROW_CLOSE);
         }
+        w.raw(TAIL);
+    }
+
+    private static void stat(HtmlWriter w, String label, BigDecimal value) {
+        w.raw(STAT_OPEN).text(label).raw(STAT_VALUE).money(value).raw(STAT_CLOSE);
     }
 }
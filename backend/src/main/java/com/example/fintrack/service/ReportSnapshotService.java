@@ -0,0 +1,140 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.events.BudgetsChangedEvent;
+import com.example.fintrack.events.TransactionsChangedEvent;
+import com.example.fintrack.model.ReportSnapshot;
+import com.example.fintrack.model.User;
+import com.example.fintrack.repository.ReportSnapshotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.YearMonth;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persisted, gzipped renders of closed-month reports. ETags of known snapshots are also kept in
+ * memory keyed by the caller's login, so a matching If-None-Match is answered without touching
+ * the database. Transaction or budget writes for a month drop both; the in-memory entries also
+ * expire after {@code app.reports.etag-ttl-ms} so other instances pick up edits made elsewhere.
+ */
+@Service
+public class ReportSnapshotService {
+
+    public record Snapshot(String etag, byte[] htmlGz) {}
+
+    /** Bump when the snapshot render changes; 2 = without the live forecast. */
+    static final int RENDER_VERSION = 2;
+
+    private record EtagKey(String email, YearMonth ym) {}
+    private record KnownEtag(String etag, long seenAt) {}
+
+    private final ReportSnapshotRepository snapshots;
+    private final ReportService reports;
+
+    private final long etagTtlMs;
+    private final Map<EtagKey, KnownEtag> etags = new ConcurrentHashMap<>();
+    private final Map<Long, String> emailByUser = new ConcurrentHashMap<>();
+
+    public ReportSnapshotService(ReportSnapshotRepository snapshots, ReportService reports,
+                                 @Value("${app.reports.etag-ttl-ms:60000}") long etagTtlMs) {
+        this.snapshots = snapshots; this.reports = reports; this.etagTtlMs = etagTtlMs;
+    }
+
+    /** Months before the current one can be snapshotted. */
+    public static boolean isClosed(YearMonth ym) {
+        return ym.isBefore(YearMonth.now());
+    }
+
+    /** ETag of the current snapshot if this JVM has seen it recently; null otherwise. */
+    public String knownEtag(String email, YearMonth ym) {
+        EtagKey key = new EtagKey(email, ym);
+        KnownEtag k = etags.get(key);
+        if (k == null) return null;
+        if (System.currentTimeMillis() - k.seenAt() > etagTtlMs) {
+            etags.remove(key, k);
+            return null;
+        }
+        return k.etag();
+    }
+
+    /** Load the snapshot for a closed month, rendering and storing it on first use. */
+    public Snapshot get(User user, YearMonth ym) {
+        String key = ym.toString();
+        ReportSnapshot s = snapshots.findByUserIdAndYm(user.getId(), key).orElse(null);
+        if (s != null && s.getRenderVersion() < RENDER_VERSION) {
+            snapshots.delete(s);
+            s = null;
+        }
+        if (s == null) {
+            s = render(user, ym);
+            try {
+                s = snapshots.save(s);
+            } catch (DataIntegrityViolationException race) {
+                // another request stored it first; serve ours, it has identical content
+            }
+        }
+        emailByUser.put(user.getId(), user.getEmail());
+        etags.put(new EtagKey(user.getEmail(), ym), new KnownEtag(s.getEtag(), System.currentTimeMillis()));
+        return new Snapshot(s.getEtag(), s.getHtmlGz());
+    }
+
+    @EventListener
+    @Transactional
+    public void onTransactionsChanged(TransactionsChangedEvent e) {
+        invalidate(e.userId(), e.months());
+    }
+
+    @EventListener
+    @Transactional
+    public void onBudgetsChanged(BudgetsChangedEvent e) {
+        invalidate(e.userId(), e.months());
+    }
+
+    private void invalidate(Long userId, Set<YearMonth> months) {
+        Set<YearMonth> closed = months.stream().filter(ReportSnapshotService::isClosed).collect(Collectors.toSet());
+        if (closed.isEmpty()) return;
+        String email = emailByUser.get(userId);
+        if (email != null) closed.forEach(ym -> etags.remove(new EtagKey(email, ym)));
+        snapshots.deleteForMonths(userId, closed.stream().map(YearMonth::toString).toList());
+    }
+
+    private ReportSnapshot render(User user, YearMonth ym) {
+        // no live forecast: it moves with later months, and invalidation only follows this month's data
+        var report = reports.monthly(user, ym.getYear(), ym.getMonthValue(), false);
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteArrayOutputStream gz = new ByteArrayOutputStream(8 * 1024);
+        try (OutputStream out = new DigestOutputStream(new GZIPOutputStream(gz), sha)) {
+            reports.writeMonthlyHtml(report, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ReportSnapshot s = new ReportSnapshot();
+        s.setUserId(user.getId());
+        s.setYm(ym.toString());
+        s.setEtag(HexFormat.of().formatHex(sha.digest(), 0, 16));
+        s.setHtmlGz(gz.toByteArray());
+        s.setRenderVersion(RENDER_VERSION);
+        return s;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.model.JobShard;
+
+/** A batch job whose work JobShardService splits into user-id ranges. */
+public interface ShardHandler {
+
+    String jobName();
+
+    /**
+     * Process users in ({@code shard.lastUserId}, {@code shard.toUserId}], calling
+     * {@link Progress#checkpoint} after each page; stop early if it returns false.
+     */
+    void process(JobShard shard, Progress progress) throws InterruptedException;
+
+    @FunctionalInterface
+    interface Progress {
+        /** Record progress and renew the lease; false if another replica now owns the shard. */
+        boolean checkpoint(long lastUserId, long sent, long failed);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.fintrack.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pacing for outgoing mail so batch jobs don't trip the SMTP relay's limits. The budget is shared
+ * by every replica: the next free slot lives in rate_limits and a batch reserves its slots with one
+ * row-locked UPDATE against the database clock, so {@code app.mail.rate-per-second} is the
+ * cluster-wide total, not per node.
+ */
+@Component
+public class SmtpRateLimiter {
+
+    static final String NAME = "smtp";
+
+    /** Push next_free past the reservation; returns how long (µs) until the first reserved slot. */
+    private static final String RESERVE = """
+            update rate_limits set next_free = greatest(next_free, clock_timestamp()) + ? * interval '1 microsecond'
+            where name = ?
+            returning (extract(epoch from next_free - clock_timestamp()) * 1000000)::bigint - ?
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final long intervalMicros;
+
+    public SmtpRateLimiter(JdbcTemplate jdbc, @Value("${app.mail.rate-per-second:10}") double permitsPerSecond) {
+        this.jdbc = jdbc;
+        this.intervalMicros = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toMicros(1) / permitsPerSecond) : 0L;
+    }
+
+    /** Block until a send slot is free; throws if interrupted while waiting. */
+    public void acquire() throws InterruptedException { acquire(1); }
+
+    /** Reserve {@code permits} consecutive slots (one batch) and wait for the first. */
+    public void acquire(int permits) throws InterruptedException {
+        if (intervalMicros == 0 || permits <= 0) return;
+        long reserve = intervalMicros * permits;
+        List<Long> waited = jdbc.queryForList(RESERVE, Long.class, reserve, NAME, reserve);
+        if (waited.isEmpty()) {
+            jdbc.update("insert into rate_limits (name, next_free) values (?, clock_timestamp()) on conflict (name) do nothing", NAME);
+            waited = jdbc.queryForList(RESERVE, Long.class, reserve, NAME, reserve);
+        }
+        long wait = TimeUnit.MICROSECONDS.toNanos(waited.isEmpty() ? 0 : waited.get(0));
+        while (wait > 0) {
+            long until = System.nanoTime() + wait;
+            LockSupport.parkNanos(wait);
+            if (Thread.interrupted()) throw new InterruptedException();
+            wait = until - System.nanoTime();
+        }
+    }
+}
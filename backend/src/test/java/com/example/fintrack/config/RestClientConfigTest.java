@@ -0,0 +1,33 @@
+package com.example.fintrack.config;
+
+import com.example.fintrack.ml.StubMlServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Per-path deadlines: /anomaly/* gets the short write-path budget, everything else the read timeout. */
+class RestClientConfigTest {
+
+    @Test
+    void anomalyCallsUseTheirOwnDeadline() throws Exception {
+        var config = new RestClientConfig();
+        try (var server = new StubMlServer();
+             var http = config.mlHttpClient(500, 2000, 4)) {
+            RestClient client = config.mlClient(RestClient.builder(), http, server.baseUrl(), 2000, 150, 200);
+            server.delay(400);
+
+            long start = System.nanoTime();
+            assertThrows(ResourceAccessException.class, () ->
+                    client.post().uri("/anomaly/expense").body(Map.of("candidate", 1)).retrieve().body(Map.class));
+            long anomalyMs = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(anomalyMs < 400, "anomaly call waited " + anomalyMs + "ms");
+
+            Map<?, ?> ok = client.post().uri("/predict/savings").body(Map.of("months", 3)).retrieve().body(Map.class);
+            assertEquals(Boolean.TRUE, ok.get("ok"));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.fintrack.html;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Output must be byte-for-byte what escaping a String and calling getBytes(UTF_8) would give. */
+class HtmlWriterTest {
+
+    private static byte[] render(Consumer<HtmlWriter> body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        HtmlWriter w = new HtmlWriter(bytes);
+        body.accept(w);
+        w.flush();
+        return bytes.toByteArray();
+    }
+
+    private static String text(CharSequence s) {
+        return new String(render(w -> w.text(s)), StandardCharsets.UTF_8);
+    }
+
+    private static String escape(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                .replace("\"", "&quot;").replace("'", "&#39;");
+    }
+
+    @Test
+    void escapesMarkupCharacters() {
+        assertEquals("&lt;script&gt;alert(&quot;x&quot; &amp; &#39;y&#39;)&lt;/script&gt;",
+                text("<script>alert(\"x\" & 'y')</script>"));
+        assertEquals("&amp;amp;", text("&amp;")); // not treated as an entity
+        assertEquals("", text(""));
+        assertEquals("", text(null));
+    }
+
+    @Test
+    void encodesUtf8LikeTheJdk() {
+        for (String s : new String[]{"café", "₹ 1,234.50", "日本語", "Ω≈ç√", "\u007f\u0080߿ࠀ￿"}) {
+            assertArrayEquals(s.getBytes(StandardCharsets.UTF_8), render(w -> w.text(s)), s);
+        }
+    }
+
+    @Test
+    void nonBmpCharactersAreOneFourByteSequence() {
+        String s = "rent 🏠 paid 😀 𝐀"; // U+1F3E0, U+1F600, U+1D400
+        byte[] out = render(w -> w.text(s));
+        assertArrayEquals(s.getBytes(StandardCharsets.UTF_8), out);
+        assertEquals(s, new String(out, StandardCharsets.UTF_8));
+        assertArrayEquals(new byte[]{(byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0x80}, render(w -> w.text("😀")));
+    }
+
+    @Test
+    void unpairedSurrogatesBecomeQuestionMarks() {
+        assertEquals("a?b", text("a\uD83Db"));
+        assertEquals("a?b", text("a\uDE00b"));
+        assertEquals("end?", text("end\uD83D"));
+        assertArrayEquals("x\uD83Dy".getBytes(StandardCharsets.UTF_8), render(w -> w.text("x\uD83Dy")));
+    }
+
+    @Test
+    void rupeeFragmentIsPreEncoded() {
+        byte[] rupee = HtmlWriter.fragment("</td><td>₹ ");
+        assertArrayEquals("</td><td>₹ ".getBytes(StandardCharsets.UTF_8), rupee);
+        assertArrayEquals(new byte[]{(byte) 0xE2, (byte) 0x82, (byte) 0xB9, ' '},
+                Arrays.copyOfRange(rupee, rupee.length - 4, rupee.length));
+
+        byte[] out = render(w -> w.raw(rupee).money(new BigDecimal("1234.505")).raw(HtmlWriter.fragment("</td>")));
+        assertEquals("</td><td>₹ 1234.51</td>", new String(out, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void numbersAndMoney() {
+        assertEquals("-42|0|0.10|1000000.00",
+                new String(render(w -> w.num(-42).raw(HtmlWriter.fragment("|")).money(null)
+                        .raw(HtmlWriter.fragment("|")).money(new BigDecimal("0.1"))
+                        .raw(HtmlWriter.fragment("|")).money(new BigDecimal("1E+6"))), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void crossesBufferBoundaries() {
+        // multi-byte sequences and entities straddling the 8K buffer, and a fragment larger than it
+        String chunk = "₹😀<&>é\"'x";
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 30_000) sb.append(chunk);
+        String big = sb.toString();
+        byte[] bigFragment = HtmlWriter.fragment("<p>" + big + "</p>");
+
+        byte[] out = render(w -> w.text(big).raw(bigFragment).text("tail"));
+        String expected = escape(big) + "<p>" + big + "</p>tail";
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), out);
+    }
+
+    @Test
+    void randomTextMatchesReferenceEscaping() {
+        Random rnd = new Random(34);
+        int[] pool = {'a', 'Z', ' ', '<', '>', '&', '"', '\'', 0xe9, 0x20b9, 0x4e2d, 0x1f600, 0x10ffff, 0xD83D, 0xDE00};
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int n = rnd.nextInt(40); n > 0; n--) sb.appendCodePoint(pool[rnd.nextInt(pool.length)]);
+            String s = sb.toString();
+            assertArrayEquals(escape(s).getBytes(StandardCharsets.UTF_8), render(w -> w.text(s)), s);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.fintrack.job;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Level 0 here is 4 buckets of 1ms, so anything past 4ms sits in an overflow level and only
+ * reaches level 0 by cascading; level 1 spans 16ms, level 2 64ms, level 3 256ms.
+ */
+class TimingWheelTest {
+
+    @Test
+    void cascadesDownFromHigherLevels() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 4, 0);
+        for (long d : new long[]{3, 7, 16, 50, 200, 1000}) assertNotNull(wheel.schedule(d, "t" + d));
+
+        List<String> fired = new ArrayList<>();
+        for (long now = 1; now <= 1000; now++) {
+            for (String v : wheel.advance(now)) {
+                assertEquals("t" + now, v, "fired at " + now);
+                fired.add(v);
+            }
+        }
+        assertEquals(List.of("t3", "t7", "t16", "t50", "t200", "t1000"), fired);
+    }
+
+    @Test
+    void firesOnTheTickContainingTheDeadline() {
+        long tick = 10;
+        TimingWheel<Long> wheel = new TimingWheel<>(tick, 8, 5);
+        Random rnd = new Random(1);
+        int scheduled = 0;
+        for (int i = 0; i < 2000; i++) {
+            long d = 20 + rnd.nextInt(200_000);
+            if (wheel.schedule(d, d) != null) scheduled++;
+        }
+        int fired = 0;
+        for (long now = 5; now <= 200_100; now += 1 + rnd.nextInt(7)) {
+            for (long d : wheel.advance(now)) {
+                // the tick is the resolution: the bucket fires once the clock enters the deadline's tick
+                assertTrue(d - d % tick <= now, "deadline " + d + " fired early at " + now);
+                assertTrue(now < d - d % tick + 7, "deadline " + d + " fired late at " + now); // first advance in it
+                fired++;
+            }
+        }
+        assertEquals(scheduled, fired);
+    }
+
+    @Test
+    void catchUpAfterAStallFiresEverythingDueAndNothingElse() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 4, 0);
+        List<Long> deadlines = List.of(2L, 9L, 33L, 300L, 999L, 1000L, 1001L, 5000L);
+        deadlines.forEach(d -> wheel.schedule(d, d));
+
+        // one advance covering several full turns of every level, as after a GC pause or a stuck tick
+        List<Long> due = wheel.advance(1000);
+        assertEquals(List.of(2L, 9L, 33L, 300L, 999L, 1000L), due.stream().sorted().toList());
+        assertEquals(List.of(), wheel.advance(1000));
+        assertEquals(List.of(1001L), wheel.advance(1001));
+        assertEquals(List.of(), wheel.advance(4999));
+        assertEquals(List.of(5000L), wheel.advance(5000));
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 4, 0);
+        var near = wheel.schedule(2, "near");
+        var far = wheel.schedule(100, "far"); // still in an overflow level when cancelled
+        var kept = wheel.schedule(101, "kept");
+        near.cancel();
+        far.cancel();
+        assertTrue(far.isCancelled());
+        assertFalse(kept.isCancelled());
+
+        assertEquals(List.of(), wheel.advance(100));
+        assertEquals(List.of("kept"), wheel.advance(101));
+    }
+
+    @Test
+    void rescheduleIsCancelPlusSchedule() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 4, 0);
+        var first = wheel.schedule(40, "u1");
+        wheel.advance(10);
+        first.cancel();
+        var moved = wheel.schedule(25, "u1"); // earlier, and from a different level
+        assertEquals(25, moved.deadline());
+        assertEquals(List.of(), wheel.advance(24));
+        assertEquals(List.of("u1"), wheel.advance(25));
+
+        moved = wheel.schedule(90, "u1");
+        moved.cancel();
+        wheel.schedule(120, "u1"); // later
+        assertEquals(List.of(), wheel.advance(119));
+        assertEquals(List.of("u1"), wheel.advance(120));
+    }
+
+    @Test
+    void dueDeadlinesAreNotScheduled() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 1000);
+        assertNull(wheel.schedule(990, "past"));
+        assertNull(wheel.schedule(1005, "this tick"));
+        assertNotNull(wheel.schedule(1010, "next tick"));
+        assertEquals(List.of("next tick"), wheel.advance(1010));
+    }
+}
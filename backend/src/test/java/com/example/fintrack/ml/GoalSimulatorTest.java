@@ -0,0 +1,49 @@
+package com.example.fintrack.ml;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * A seed must pin the odds: chunking depends only on {@code paths}, so neither a rerun nor a
+ * different amount of parallelism may change the result.
+ */
+class GoalSimulatorTest {
+
+    private final GoalSimulator simulator = new GoalSimulator();
+
+    private double[] run() {
+        return simulator.simulate(1000, 400, new double[]{2500, 6000, 0}, new int[]{6, 12, 3},
+                new double[]{0.4, 0.6, 0.0}, 10_000, 42L);
+    }
+
+    @Test
+    void fixedSeedGivesFixedOdds() {
+        assertArrayEquals(new double[]{0.4013, 0.9992, 1.0}, run());
+        assertArrayEquals(run(), run());
+    }
+
+    @Test
+    void parallelismDoesNotChangeTheResult() throws Exception {
+        double[] expected = run();
+        for (int threads : new int[]{1, 3, 16}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                assertArrayEquals(expected, pool.submit(this::run).get(), "parallelism " + threads);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void noVolatilityIsAllOrNothing() {
+        // 100 a month, all to one goal: 1000 takes exactly ten months
+        assertArrayEquals(new double[]{1.0}, simulator.simulate(100, 0, new double[]{1000}, new int[]{10},
+                new double[]{1.0}, 500, 7L));
+        assertArrayEquals(new double[]{0.0}, simulator.simulate(100, 0, new double[]{1000}, new int[]{9},
+                new double[]{1.0}, 500, 7L));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.fintrack.ml;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Decisions of {@link LocalAnomalyDetector} against fixtures recorded from ml-service's own
+ * {@code /anomaly/expense} ({@code ml-service/parity_fixtures.py} writes
+ * {@code src/test/resources/ml/anomaly_parity.json}). The port can't replay numpy's random stream,
+ * so forest scores differ slightly: decisions must match except within {@link #MARGIN} of the
+ * boundary, and the non-random branches must match exactly, scores included.
+ *
+ * <p>The checked-in fixtures cover only the non-forest branches; forest cases are recorded by
+ * re-running the script where scikit-learn is installed. Until they are, the remote engine stays the default.
+ */
+class IsolationForestParityTest {
+
+    /** |sklearn decision_function| below which RNG differences may flip the call. */
+    private static final double MARGIN = 0.02;
+
+    @Test
+    void decisionsMatchTheMlService() throws Exception {
+        InputStream in = getClass().getResourceAsStream("/ml/anomaly_parity.json");
+        assertNotNull(in, "no fixtures; run ml-service/parity_fixtures.py");
+        JsonNode cases;
+        try (in) {
+            cases = new ObjectMapper().readTree(in);
+        }
+
+        var detector = new LocalAnomalyDetector();
+        List<String> mismatches = new ArrayList<>();
+        int checked = 0;
+        for (JsonNode c : cases) {
+            double[] history = new double[c.get("history").size()];
+            for (int i = 0; i < history.length; i++) history[i] = c.get("history").get(i).asDouble();
+            double x = c.get("candidate").asDouble();
+            boolean expected = c.get("is_anomaly").asBoolean();
+            double expectedScore = c.get("score").asDouble();
+            String method = c.get("method").asText();
+
+            AnomalyResult r = detector.score(history, x);
+            assertEquals(method, r.method(), () -> c.get("name").asText());
+            if (!method.equals("isoforest")) {
+                assertEquals(expectedScore, r.score(), 1e-9, () -> c.get("name").asText());
+            }
+            if (method.equals("isoforest") && Math.abs(expectedScore) < MARGIN) continue;
+            checked++;
+            if (r.anomaly() != expected) {
+                mismatches.add(c.get("name").asText() + ": ml-service " + expected + " (score " + expectedScore
+                        + "), local " + r.anomaly() + " (score " + r.score() + ")");
+            }
+        }
+        assertTrue(checked > 0, "fixtures have no decisive cases");
+        assertTrue(mismatches.isEmpty(), () -> String.join("\n", mismatches));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.fintrack.ml;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The non-random branches of ml-service's {@code /anomaly/expense}, with expectations worked out
+ * from main.py by hand; the isolation forest itself is covered by {@link IsolationForestParityTest}.
+ */
+class LocalAnomalyDetectorTest {
+
+    private final LocalAnomalyDetector detector = new LocalAnomalyDetector();
+
+    private void check(double[] history, double x, boolean anomaly, double score, String method) {
+        AnomalyResult r = detector.score(history, x);
+        assertEquals(method, r.method());
+        assertEquals(anomaly, r.anomaly());
+        assertEquals(score, r.score(), 1e-9);
+    }
+
+    @Test
+    void smallSample() {
+        check(new double[0], 4999, false, 4999, "small-sample");     // mu = 0, divide by 1
+        check(new double[0], 5000, true, 5000, "small-sample");      // absolute cap
+        check(new double[]{100, 200}, 270, false, 0.8, "small-sample"); // 1.8 * mu is not exceeded
+        check(new double[]{100, 200}, 271, true, 121.0 / 150, "small-sample");
+    }
+
+    @Test
+    void madZ() {
+        // median 120, MAD 10
+        check(new double[]{100, 110, 120, 130, 140}, 200, true, 80 / 14.826, "mad-z");
+        check(new double[]{100, 110, 120, 130, 140}, 150, false, 30 / 14.826, "mad-z");
+        // even length: median 115, MAD (5 + 15) / 2 = 10
+        check(new double[]{130, 100, 120, 110}, 150, false, 35 / 14.826, "mad-z");
+        check(new double[]{130, 100, 120, 110}, 155, true, 40 / 14.826, "mad-z");
+        // eight values but only two distinct: no forest; median 150, MAD 50
+        check(new double[]{100, 100, 100, 100, 200, 200, 200, 200}, 400, true, 250 / (1.4826 * 50), "mad-z");
+    }
+
+    @Test
+    void ratioWhenFlat() {
+        check(new double[]{100, 100, 100, 100, 500}, 179, false, 1.79, "ratio");
+        check(new double[]{100, 100, 100, 100, 500}, 180, true, 1.8, "ratio");
+        check(new double[]{0, 0, 0}, 40, true, 40, "ratio"); // median 0 -> divide by 1
+    }
+
+    @Test
+    void forestOnlyWithEnoughVariedHistory() {
+        double[] history = new double[20];
+        for (int i = 0; i < history.length; i++) history[i] = 950 + 5 * i;
+        AnomalyResult typical = detector.score(history, 1000);
+        AnomalyResult outlier = detector.score(history, 10_000);
+        assertEquals("isoforest", typical.method());
+        assertFalse(typical.anomaly());
+        assertTrue(outlier.anomaly());
+        assertTrue(outlier.score() > typical.score());
+    }
+
+    @Test
+    void cachedForestScoresLikeAFreshFit() {
+        double[] history = new double[30];
+        for (int i = 0; i < history.length; i++) history[i] = 400 + (i * 37) % 90;
+        var cached = new LocalAnomalyDetector(8);
+        for (double x : new double[]{410, 470, 900, 5000}) {
+            AnomalyResult fresh = detector.score(history, x);
+            AnomalyResult first = cached.score("1:FOOD:2025-01-01", history, x);
+            AnomalyResult again = cached.score("1:FOOD:2025-01-01", history, x);
+            assertEquals(fresh, first);
+            assertEquals(fresh, again);
+        }
+        // same key, different history (a transaction was added): refit, not the stale forest
+        double[] grown = Arrays.copyOf(history, history.length + 1);
+        grown[history.length] = 2000;
+        assertEquals(detector.score(grown, 470), cached.score("1:FOOD:2025-01-01", grown, 470));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.fintrack.ml;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MlGatewayTest {
+
+    private static final long OPEN_MS = 150;
+    private static final long TIMEOUT_MS = 200;
+
+    private StubMlServer server;
+    private SimpleMeterRegistry meters;
+    private MlGateway gateway;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StubMlServer();
+        meters = new SimpleMeterRegistry();
+        var http = HttpClients.custom()
+                .setDefaultRequestConfig(RequestConfig.custom().setResponseTimeout(Timeout.ofMilliseconds(TIMEOUT_MS)).build())
+                .disableAutomaticRetries()
+                .build();
+        RestClient client = RestClient.builder()
+                .baseUrl(server.baseUrl())
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(http))
+                .build();
+        gateway = new MlGateway(client, meters, 4, 0, 3, OPEN_MS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private Map<?, ?> call() {
+        return gateway.post("/predict/savings", Map.of("months", 3), Map.class);
+    }
+
+    private double calls(String outcome) {
+        var c = meters.find("ml.client.calls").tag("outcome", outcome).counter();
+        return c == null ? 0 : c.count();
+    }
+
+    private double transitions(CircuitBreaker.State from, CircuitBreaker.State to) {
+        var c = meters.find("ml.client.circuit.transitions").tag("from", from.name()).tag("to", to.name()).counter();
+        return c == null ? 0 : c.count();
+    }
+
+    @Test
+    void successRecordsLatencyAndBody() {
+        server.respond(200, "{\"next_month_savings\":12.5}").delay(50);
+        Map<?, ?> body = call();
+        assertEquals(12.5, ((Number) body.get("next_month_savings")).doubleValue());
+        assertEquals(1, calls("success"));
+        var latency = meters.find("ml.client.latency").tag("uri", "/predict/savings").timer();
+        assertNotNull(latency);
+        assertEquals(1, latency.count());
+        assertTrue(latency.totalTime(TimeUnit.MILLISECONDS) >= 50);
+        assertEquals(CircuitBreaker.State.CLOSED, gateway.circuitState());
+    }
+
+    @Test
+    void slowUpstreamTimesOutAsFailure() {
+        server.delay(TIMEOUT_MS * 4);
+        long start = System.nanoTime();
+        assertThrows(MlUnavailableException.class, this::call);
+        long tookMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(tookMs < TIMEOUT_MS * 3, "waited " + tookMs + "ms");
+        assertEquals(1, calls("failure"));
+        assertEquals(1, meters.find("ml.client.latency").timer().count()); // failures are timed too
+    }
+
+    @Test
+    void opensAfterThresholdThenClosesOnGoodProbe() throws Exception {
+        server.respond(503, "{}");
+        for (int i = 0; i < 3; i++) assertThrows(MlUnavailableException.class, this::call);
+        assertEquals(CircuitBreaker.State.OPEN, gateway.circuitState());
+        assertEquals(1, transitions(CircuitBreaker.State.CLOSED, CircuitBreaker.State.OPEN));
+
+        // open: rejected without touching upstream
+        int hits = server.hits();
+        assertThrows(MlUnavailableException.class, this::call);
+        assertEquals(hits, server.hits());
+        assertEquals(1, calls("short_circuited"));
+
+        Thread.sleep(OPEN_MS + 50);
+        server.respond(200, "{\"ok\":true}");
+        assertNotNull(call());
+        assertEquals(1, transitions(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN));
+        assertEquals(1, transitions(CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED));
+        assertEquals(CircuitBreaker.State.CLOSED, gateway.circuitState());
+    }
+
+    @Test
+    void failedProbeReopens() throws Exception {
+        server.respond(500, "{}");
+        for (int i = 0; i < 3; i++) assertThrows(MlUnavailableException.class, this::call);
+        Thread.sleep(OPEN_MS + 50);
+        assertThrows(MlUnavailableException.class, this::call);
+        assertEquals(1, transitions(CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.OPEN));
+        assertEquals(CircuitBreaker.State.OPEN, gateway.circuitState());
+    }
+
+    @Test
+    void clientErrorsDoNotTrip() {
+        server.respond(422, "{\"detail\":\"bad\"}");
+        for (int i = 0; i < 5; i++) assertThrows(MlUnavailableException.class, this::call);
+        assertEquals(5, calls("client_error"));
+        assertEquals(CircuitBreaker.State.CLOSED, gateway.circuitState());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.fintrack.ml;
+
+import org.junit.jupiter.api.Test;
+
+import static com.example.fintrack.ml.SavingsForecaster.Model.HOLT;
+import static com.example.fintrack.ml.SavingsForecaster.Model.LINEAR;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * LINEAR must answer exactly what ml-service's {@code /predict/savings} does: sklearn's OLS on the
+ * time index (closed form, so the expected values are exact) and Python's {@code round(pred, 2)}.
+ */
+class SavingsForecasterTest {
+
+    private final SavingsForecaster forecaster = new SavingsForecaster(0.5, 0.3);
+
+    @Test
+    void linearMatchesTheMlService() {
+        assertEquals(400.0, forecaster.forecast(new double[]{100, 200, 300}, LINEAR));
+        assertEquals(1450.0, forecaster.forecast(new double[]{1000, 1200, 900, 1500}, LINEAR));
+        // 6486.0466...
+        assertEquals(6486.05, forecaster.forecast(new double[]{5234.5, 4980.25, 6120.0, 5875.75, 6400.1, 5900.0}, LINEAR));
+        assertEquals(285.0, forecaster.forecast(new double[]{-200, 150, -50, 300, 100}, LINEAR));
+    }
+
+    @Test
+    void flatOrShortSeriesUseTheMean() {
+        assertEquals(0.0, forecaster.forecast(new double[0], LINEAR));
+        assertEquals(750.5, forecaster.forecast(new double[]{750.5}, LINEAR));
+        assertEquals(300.0, forecaster.forecast(new double[]{300, 300, 300}, HOLT));
+    }
+
+    @Test
+    void roundsLikePython() {
+        // round(x, 2) works on the exact binary value, half-even only on true ties
+        assertEquals(0.12, forecaster.forecast(new double[]{0.125}, LINEAR));   // tie -> even
+        assertEquals(0.38, forecaster.forecast(new double[]{0.375}, LINEAR));   // tie -> even
+        assertEquals(-0.12, forecaster.forecast(new double[]{-0.125}, LINEAR));
+        assertEquals(2.67, forecaster.forecast(new double[]{2.675}, LINEAR));   // 2.67499999... in binary
+        assertEquals(1.01, forecaster.forecast(new double[]{1.005 + 0.0001}, LINEAR));
+    }
+
+    @Test
+    void holtFollowsTheTrend() {
+        assertEquals(400.0, forecaster.forecast(new double[]{100, 200, 300}, HOLT));
+        assertEquals(1546.25, forecaster.forecast(new double[]{1000, 1200, 900, 1500}, HOLT));
+        assertEquals(6135.36, forecaster.forecast(new double[]{5234.5, 4980.25, 6120.0, 5875.75, 6400.1, 5900.0}, HOLT));
+        assertEquals(525.83, forecaster.forecast(new double[]{-200, 150, -50, 300, 100}, HOLT));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.fintrack.ml;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Loopback stand-in for ml-service: every path answers with the configured status, body and delay. */
+public final class StubMlServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService pool = Executors.newCachedThreadPool();
+    private final AtomicInteger hits = new AtomicInteger();
+
+    private volatile int status = 200;
+    private volatile String body = "{\"ok\":true}";
+    private volatile long delayMs;
+
+    public StubMlServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(pool);
+        server.createContext("/", ex -> {
+            hits.incrementAndGet();
+            try {
+                ex.getRequestBody().readAllBytes();
+                if (delayMs > 0) Thread.sleep(delayMs);
+                byte[] out = body.getBytes(StandardCharsets.UTF_8);
+                ex.getResponseHeaders().set("Content-Type", "application/json");
+                ex.sendResponseHeaders(status, out.length);
+                try (OutputStream os = ex.getResponseBody()) { os.write(out); }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ignored) {
+                // client gave up (timeout tests)
+            } finally {
+                ex.close();
+            }
+        });
+        server.start();
+    }
+
+    public String baseUrl() { return "http://127.0.0.1:" + server.getAddress().getPort(); }
+
+    public StubMlServer respond(int status, String body) { this.status = status; this.body = body; return this; }
+
+    public StubMlServer delay(long ms) { this.delayMs = ms; return this; }
+
+    public int hits() { return hits.get(); }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.fintrack.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static com.example.fintrack.model.Recurrence.Freq.*;
+import static com.example.fintrack.model.Recurrence.LAST_DAY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The epoch-day arithmetic must agree with java.time everywhere a schedule can reach. */
+class RecurrenceTest {
+
+    @Test
+    void epochDayMatchesJavaTime() {
+        for (LocalDate d = LocalDate.of(1800, 1, 1); d.getYear() < 2300; d = d.plusDays(1)) {
+            assertEquals(d.toEpochDay(), Recurrence.epochDay(d.getYear(), d.getMonthValue(), d.getDayOfMonth()), d::toString);
+        }
+        // far out, and before year 0 (era arithmetic on negative years)
+        for (LocalDate d : List.of(LocalDate.of(-400, 3, 1), LocalDate.of(-1, 12, 31), LocalDate.of(0, 2, 29),
+                LocalDate.of(9999, 12, 31), LocalDate.of(1970, 1, 1))) {
+            assertEquals(d.toEpochDay(), Recurrence.epochDay(d.getYear(), d.getMonthValue(), d.getDayOfMonth()), d::toString);
+        }
+    }
+
+    @Test
+    void lengthOfMonthMatchesJavaTime() {
+        for (int y = 1600; y <= 2400; y++) {
+            for (int m = 1; m <= 12; m++) {
+                assertEquals(YearMonth.of(y, m).lengthOfMonth(), Recurrence.lengthOfMonth(y, m), y + "-" + m);
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "ceilDiv({0}, {1}) = {2}")
+    @CsvSource({
+            "0, 3, 0",
+            "-5, 3, 0",   // before the anchor: start at the anchor
+            "1, 3, 1",
+            "3, 3, 1",
+            "4, 3, 2",
+            "13, 7, 2",
+            "14, 7, 2",
+            "15, 7, 3",
+    })
+    void ceilDiv(long a, long b, long expected) {
+        assertEquals(expected, Recurrence.ceilDiv(a, b));
+    }
+
+    @ParameterizedTest(name = "{0} x{1} day {2} anchored {3}, from {4}")
+    @CsvSource(delimiter = '|', value = {
+            // 31st clamps to each month's length, leap February included
+            "MONTHLY | 1 | 31 | 2024-01-31 | 2024-01-01 | 2024-01-31 2024-02-29 2024-03-31 2024-04-30 2024-05-31 2024-06-30",
+            "MONTHLY | 1 | -1 | 2023-01-31 | 2023-01-01 | 2023-01-31 2023-02-28 2023-03-31 2023-04-30 2023-05-31 2023-06-30",
+            "MONTHLY | 1 | 30 | 2023-12-30 | 2024-01-31 | 2024-02-29 2024-03-30 2024-04-30 2024-05-30 2024-06-30 2024-07-30",
+            // anchored after this month's due day: the first occurrence is next month's
+            "MONTHLY | 1 |  5 | 2024-01-20 | 2024-01-01 | 2024-02-05 2024-03-05 2024-04-05 2024-05-05 2024-06-05 2024-07-05",
+            // cursor before the anchor starts at the anchor
+            "MONTHLY | 1 | 10 | 2024-03-10 | 2023-12-01 | 2024-03-10 2024-04-10 2024-05-10 2024-06-10 2024-07-10 2024-08-10",
+            "WEEKLY  | 1 |  0 | 2024-01-03 | 2023-06-01 | 2024-01-03 2024-01-10 2024-01-17 2024-01-24 2024-01-31 2024-02-07",
+            "YEARLY  | 2 | -1 | 2024-02-29 | 2020-01-01 | 2024-02-29 2026-02-28 2028-02-29 2030-02-28 2032-02-29 2034-02-28",
+            // quarterly keeps the anchor's month phase (Feb/May/Aug/Nov)
+            "MONTHLY | 3 | 15 | 2024-02-15 | 2024-06-01 | 2024-08-15 2024-11-15 2025-02-15 2025-05-15 2025-08-15 2025-11-15",
+            "MONTHLY | 3 | 15 | 2024-02-15 | 2024-05-15 | 2024-05-15 2024-08-15 2024-11-15 2025-02-15 2025-05-15 2025-08-15",
+            "MONTHLY | 3 | 31 | 2023-11-30 | 2023-11-30 | 2023-11-30 2024-02-29 2024-05-31 2024-08-31 2024-11-30 2025-02-28",
+            // biweekly keeps the anchor's week phase
+            "WEEKLY  | 2 |  0 | 2024-01-05 | 2024-01-06 | 2024-01-19 2024-02-02 2024-02-16 2024-03-01 2024-03-15 2024-03-29",
+            "WEEKLY  | 2 |  0 | 2024-01-05 | 2024-01-19 | 2024-01-19 2024-02-02 2024-02-16 2024-03-01 2024-03-15 2024-03-29",
+            // leap day yearly, through the 1900 and 2000 century rules
+            "YEARLY  | 1 | 29 | 2024-02-29 | 2024-03-01 | 2025-02-28 2026-02-28 2027-02-28 2028-02-29 2029-02-28 2030-02-28",
+            "YEARLY  | 1 | -1 | 1896-02-29 | 1899-01-01 | 1899-02-28 1900-02-28 1901-02-28 1902-02-28 1903-02-28 1904-02-29",
+            "YEARLY  | 4 | -1 | 1992-02-29 | 1995-06-01 | 1996-02-29 2000-02-29 2004-02-29 2008-02-29 2012-02-29 2016-02-29",
+    })
+    void occurrences(Recurrence.Freq freq, int interval, int monthDay, LocalDate anchor, LocalDate from, String expected) {
+        Recurrence r = new Recurrence(freq, interval, monthDay, anchor);
+        List<LocalDate> want = Arrays.stream(expected.split(" ")).map(LocalDate::parse).toList();
+        assertEquals(want, walk(r, from, want.size()));
+        assertEquals(want, reference(freq, interval, monthDay, anchor, from, want.size()));
+        assertEquals(want.get(0), r.firstOnOrAfter(from));
+    }
+
+    @Test
+    void randomSchedulesMatchJavaTime() {
+        Random rnd = new Random(2024);
+        Recurrence.Freq[] freqs = Recurrence.Freq.values();
+        for (int i = 0; i < 5000; i++) {
+            var freq = freqs[rnd.nextInt(freqs.length)];
+            int interval = 1 + rnd.nextInt(freq == WEEKLY ? 4 : 6);
+            int monthDay = freq == WEEKLY ? 0 : rnd.nextInt(8) == 0 ? LAST_DAY : 1 + rnd.nextInt(31);
+            LocalDate anchor = LocalDate.of(1990, 1, 1).plusDays(rnd.nextInt(20_000));
+            LocalDate from = anchor.plusDays(rnd.nextInt(8_000) - 1_000);
+            Recurrence r = new Recurrence(freq, interval, monthDay, anchor);
+            assertEquals(reference(freq, interval, monthDay, anchor, from, 24), walk(r, from, 24),
+                    () -> freq + " x" + interval + " day " + monthDay + " anchor " + anchor + " from " + from);
+        }
+    }
+
+    @Test
+    void rejectsBadInput() {
+        assertThrows(IllegalArgumentException.class, () -> new Recurrence(MONTHLY, 0, 1, LocalDate.of(2024, 1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> new Recurrence(MONTHLY, 1, 32, LocalDate.of(2024, 1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> new Recurrence(YEARLY, 1, 0, LocalDate.of(2024, 1, 1)));
+    }
+
+    private static List<LocalDate> walk(Recurrence r, LocalDate from, int n) {
+        var c = r.cursor(from);
+        List<LocalDate> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(LocalDate.ofEpochDay(c.next()));
+        return out;
+    }
+
+    /** Straightforward java.time version: step from the anchor, keep what falls on or after from. */
+    private static List<LocalDate> reference(Recurrence.Freq freq, int interval, int monthDay,
+                                             LocalDate anchor, LocalDate from, int n) {
+        LocalDate start = from.isAfter(anchor) ? from : anchor;
+        List<LocalDate> out = new ArrayList<>(n);
+        if (freq == WEEKLY) {
+            for (LocalDate d = anchor; out.size() < n; d = d.plusWeeks(interval)) {
+                if (!d.isBefore(start)) out.add(d);
+            }
+            return out;
+        }
+        int step = freq == YEARLY ? 12 * interval : interval;
+        for (YearMonth ym = YearMonth.from(anchor); out.size() < n; ym = ym.plusMonths(step)) {
+            int len = ym.lengthOfMonth();
+            LocalDate d = ym.atDay(monthDay == LAST_DAY ? len : Math.min(monthDay, len));
+            if (!d.isBefore(start)) out.add(d);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.repository.BillRepository;
+import com.example.fintrack.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/** Reminder instants follow the user's wall clock through DST changes. */
+class BillReminderSchedulerTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+    private static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+    private BillReminderScheduler scheduler;
+
+    private BillReminderScheduler scheduler(String remindAt, long spreadMinutes) {
+        scheduler = new BillReminderScheduler(mock(BillService.class), mock(BillRepository.class),
+                mock(UserRepository.class), remindAt, spreadMinutes, 48, "Asia/Kolkata", 1);
+        return scheduler;
+    }
+
+    @AfterEach
+    void shutdown() {
+        if (scheduler != null) scheduler.shutdown();
+    }
+
+    private static Instant at(BillReminderScheduler s, long userId, ZoneId zone, String day) {
+        return Instant.ofEpochMilli(s.reminderAt(userId, zone, LocalDate.parse(day)));
+    }
+
+    @Test
+    void staysAtLocalNineAcrossSpringForward() {
+        var s = scheduler("09:00", 0);
+        assertEquals(Instant.parse("2026-03-07T14:00:00Z"), at(s, 1, NEW_YORK, "2026-03-07"));
+        assertEquals(Instant.parse("2026-03-08T13:00:00Z"), at(s, 1, NEW_YORK, "2026-03-08"));
+        assertEquals(Instant.parse("2026-03-28T09:00:00Z"), at(s, 1, LONDON, "2026-03-28"));
+        assertEquals(Instant.parse("2026-03-29T08:00:00Z"), at(s, 1, LONDON, "2026-03-29"));
+    }
+
+    @Test
+    void staysAtLocalNineAcrossFallBack() {
+        var s = scheduler("09:00", 0);
+        assertEquals(Instant.parse("2026-10-31T13:00:00Z"), at(s, 1, NEW_YORK, "2026-10-31"));
+        assertEquals(Instant.parse("2026-11-01T14:00:00Z"), at(s, 1, NEW_YORK, "2026-11-01"));
+        assertEquals(Instant.parse("2026-10-24T08:00:00Z"), at(s, 1, LONDON, "2026-10-24"));
+        assertEquals(Instant.parse("2026-10-25T09:00:00Z"), at(s, 1, LONDON, "2026-10-25"));
+    }
+
+    @Test
+    void skippedAndRepeatedWallTimesStillFireOnce() {
+        // 02:30 does not exist on 8 March in New York: moves forward by the gap to 03:30 EDT
+        assertEquals(Instant.parse("2026-03-08T07:30:00Z"), at(scheduler("02:30", 0), 1, NEW_YORK, "2026-03-08"));
+        scheduler.shutdown();
+        // 01:30 happens twice on 1 November: the first one (EDT)
+        assertEquals(Instant.parse("2026-11-01T05:30:00Z"), at(scheduler("01:30", 0), 1, NEW_YORK, "2026-11-01"));
+    }
+
+    @Test
+    void perUserSpreadIsStableAcrossTheChange() {
+        var s = scheduler("09:00", 120);
+        for (long userId = 1; userId <= 50; userId++) {
+            Duration before = Duration.between(Instant.parse("2026-03-07T14:00:00Z"), at(s, userId, NEW_YORK, "2026-03-07"));
+            Duration after = Duration.between(Instant.parse("2026-03-08T13:00:00Z"), at(s, userId, NEW_YORK, "2026-03-08"));
+            assertEquals(before, after, "user " + userId);
+            assertFalse(before.isNegative());
+            assertTrue(before.compareTo(Duration.ofMinutes(120)) < 0);
+        }
+    }
+
+    @Test
+    void zoneWithoutDstIsADayApart() {
+        var s = scheduler("09:00", 0);
+        ZoneId kolkata = ZoneId.of("Asia/Kolkata");
+        assertEquals(Instant.parse("2026-03-08T03:30:00Z"), at(s, 1, kolkata, "2026-03-08"));
+        assertEquals(Duration.ofDays(1), Duration.between(at(s, 1, kolkata, "2026-03-08"), at(s, 1, kolkata, "2026-03-09")));
+    }
+}
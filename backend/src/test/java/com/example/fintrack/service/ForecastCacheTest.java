@@ -0,0 +1,64 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.dto.SavingsMonth;
+import com.example.fintrack.events.TransactionsChangedEvent;
+import com.example.fintrack.service.ForecastService.Forecast;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastCacheTest {
+
+    private static final List<SavingsMonth> HISTORY = List.of(
+            new SavingsMonth(2026, 7, 5000, 3000), new SavingsMonth(2026, 8, 5200, 3100));
+
+    private static Forecast forecast(double v) { return new Forecast(v, List.of(2000.0, 2100.0), null); }
+
+    @Test
+    void perUserStateIsDroppedWithTheUsersLastEntry() {
+        ForecastCache cache = new ForecastCache(3);
+        for (long user = 1; user <= 1000; user++) {
+            cache.get(user, HISTORY, () -> forecast(1));
+            cache.onTransactionsChanged(new TransactionsChangedEvent(user % 7, Set.of(YearMonth.of(2026, 8))));
+        }
+        assertTrue(cache.trackedUsers() <= 3, "tracked " + cache.trackedUsers());
+
+        // writes for users with nothing cached leave nothing behind
+        for (long user = 5000; user < 6000; user++) {
+            cache.onTransactionsChanged(new TransactionsChangedEvent(user, Set.of(YearMonth.of(2026, 8))));
+        }
+        assertTrue(cache.trackedUsers() <= 3);
+    }
+
+    @Test
+    void invalidationDropsTouchedEntriesAndTheirUser() {
+        ForecastCache cache = new ForecastCache(100);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1L, HISTORY, () -> forecast(loads.incrementAndGet()));
+        assertEquals(1.0, cache.get(1L, HISTORY, () -> forecast(loads.incrementAndGet())).nextMonthSavings());
+
+        cache.onTransactionsChanged(new TransactionsChangedEvent(1L, Set.of(YearMonth.of(2026, 3))));
+        assertEquals(1, cache.trackedUsers()); // untouched month: entry kept
+
+        cache.onTransactionsChanged(new TransactionsChangedEvent(1L, Set.of(YearMonth.of(2026, 7))));
+        assertEquals(0, cache.trackedUsers());
+        assertEquals(2.0, cache.get(1L, HISTORY, () -> forecast(loads.incrementAndGet())).nextMonthSavings());
+    }
+
+    @Test
+    void writeDuringALoadKeepsTheResultOutOfTheCache() {
+        ForecastCache cache = new ForecastCache(100);
+        Forecast stale = cache.get(1L, HISTORY, () -> {
+            cache.onTransactionsChanged(new TransactionsChangedEvent(1L, Set.of(YearMonth.of(2026, 8))));
+            return forecast(1);
+        });
+        assertEquals(1.0, stale.nextMonthSavings());
+        assertEquals(0, cache.trackedUsers());
+        assertEquals(2.0, cache.get(1L, HISTORY, () -> forecast(2)).nextMonthSavings());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.model.Goal;
+import com.example.fintrack.model.User;
+import com.example.fintrack.repository.GoalContributionRepository;
+import com.example.fintrack.repository.GoalRepository;
+import com.example.fintrack.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parallel contributions to one goal must not lose updates (the in-database increment in
+ * {@link GoalRepository#addContribution}). Needs a real Postgres: set SPRING_DATASOURCE_URL,
+ * _USERNAME and _PASSWORD, as for running the app.
+ */
+@SpringBootTest(properties = "app.events.sink=memory")
+@EnabledIfEnvironmentVariable(named = "SPRING_DATASOURCE_URL", matches = ".+")
+class GoalContributionConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 25;
+
+    @Autowired GoalService goalService;
+    @Autowired GoalRepository goals;
+    @Autowired GoalContributionRepository contribs;
+    @Autowired UserRepository users;
+    @Autowired TransactionTemplate tx;
+
+    private User user;
+    private Goal goal;
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(s -> {
+            if (goal != null) {
+                contribs.deleteByGoal(goal);
+                goals.deleteById(goal.getId());
+            }
+            if (user != null) users.deleteById(user.getId());
+        });
+    }
+
+    @Test
+    void parallelContributionsAreAllCounted() throws Exception {
+        user = new User();
+        user.setEmail("goal-stress-" + UUID.randomUUID() + "@test.local");
+        user.setPasswordHash("x");
+        user = users.save(user);
+        goal = goalService.create(user, "stress", new BigDecimal("100000.00"), LocalDate.now().plusYears(1));
+
+        BigDecimal amount = new BigDecimal("1.25");
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                done.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < PER_THREAD; i++) goalService.contribute(user, goal.getId(), amount, null, null);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : done) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int n = THREADS * PER_THREAD;
+        Goal reloaded = goals.findById(goal.getId()).orElseThrow();
+        assertEquals(0, amount.multiply(BigDecimal.valueOf(n)).compareTo(reloaded.getContributed()),
+                "contributed=" + reloaded.getContributed());
+        assertEquals(n, contribs.findByGoal(reloaded).size());
+    }
+
+    @Test
+    void someoneElsesGoalIsNotFound() {
+        user = new User();
+        user.setEmail("goal-stress-" + UUID.randomUUID() + "@test.local");
+        user.setPasswordHash("x");
+        user = users.save(user);
+        assertThrows(NoSuchElementException.class,
+                () -> goalService.contribute(user, Long.MAX_VALUE, BigDecimal.ONE, null, null));
+    }
+}
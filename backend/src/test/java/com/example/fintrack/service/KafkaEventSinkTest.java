@@ -0,0 +1,49 @@
+package com.example.fintrack.service;
+
+import com.example.fintrack.model.EventOutbox;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class KafkaEventSinkTest {
+
+    private static EventOutbox row(long id) {
+        EventOutbox e = mock(EventOutbox.class);
+        when(e.getId()).thenReturn(id);
+        when(e.getTopic()).thenReturn("fintrack.events");
+        when(e.getEventKey()).thenReturn("1");
+        when(e.getPayload()).thenReturn("{}");
+        return e;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void firstBlockingFailureFailsTheRestUnsent() throws Exception {
+        KafkaTemplate<String, Object> kafka = mock(KafkaTemplate.class);
+        var outage = new TimeoutException("Topic fintrack.events not present in metadata after 10000 ms.");
+        when(kafka.send(anyString(), anyString(), any())).thenThrow(outage);
+
+        Map<Long, Exception> failed = new KafkaEventSink(kafka, 1000).send(List.of(row(1), row(2), row(3)));
+
+        verify(kafka, times(1)).send(anyString(), anyString(), any());
+        assertEquals(Map.of(1L, outage, 2L, outage, 3L, outage), failed);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void acknowledgedBatchHasNoFailures() throws Exception {
+        KafkaTemplate<String, Object> kafka = mock(KafkaTemplate.class);
+        when(kafka.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertTrue(new KafkaEventSink(kafka, 1000).send(List.of(row(1), row(2))).isEmpty());
+        verify(kafka, times(2)).send(anyString(), anyString(), any());
+    }
+}
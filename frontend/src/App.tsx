@@ -46,16 +46,40 @@ function Nav() {
         if (!cancelled) setEmail(data?.email ?? null)
       } catch { if (!cancelled) setEmail(null) }
     }
+    fetchMe()
     const fetchCount = async () => {
       try {
         const { data } = await api.get('/alerts/unread-count')
         if (!cancelled) setUnread(data?.count ?? 0)
       } catch {}
     }
-    fetchMe()
-    fetchCount()
-    const id = setInterval(fetchCount, 10000)
-    return () => { cancelled = true; clearInterval(id) }
+    // Server pushes the unread count on connect and whenever it changes. Each connect uses a
+    // fresh single-use ticket (the JWT never goes in a URL), so reconnects are done here rather
+    // than by EventSource. A slow poll stays as a safety net in case a push is lost.
+    let es: EventSource | null = null
+    let retry: ReturnType<typeof setTimeout> | undefined
+    const connect = async () => {
+      try {
+        const { data } = await api.post('/alerts/stream-ticket')
+        if (cancelled) return
+        es = new EventSource(`${api.defaults.baseURL}/alerts/stream?ticket=${encodeURIComponent(data.ticket)}`)
+        es.addEventListener('unread', (e) => {
+          try {
+            const data = JSON.parse((e as MessageEvent).data)
+            if (!cancelled) setUnread(data?.count ?? 0)
+          } catch {}
+        })
+        es.onerror = () => {
+          es?.close()
+          if (!cancelled) retry = setTimeout(connect, 5000)
+        }
+      } catch {
+        if (!cancelled) retry = setTimeout(connect, 15000)
+      }
+    }
+    connect()
+    const poll = setInterval(fetchCount, 60000)
+    return () => { cancelled = true; clearInterval(poll); clearTimeout(retry); es?.close() }
   }, [token])
 
   const link = ({ isActive }: { isActive: boolean }) => `nav-link${isActive ? ' active' : ''}`
@@ -2,23 +2,38 @@ import React, { useEffect, useState } from 'react'
 import api from '../api'
 
 type Alert = { id:number; type:string; severity:string; title:string; message:string; txId:number|null; createdAt:string; read:boolean }
+type AlertPage = { items: Alert[]; nextCursor: string|null; headCursor: string|null }
 
 export default function Alerts(){
   const [items, setItems] = useState<Alert[]>([])
+  const [next, setNext] = useState<string|null>(null)
+  const [head, setHead] = useState<string|null>(null)
   const [loading, setLoading] = useState(false)
 
   const load = async ()=>{
     setLoading(true)
     try {
-      const { data } = await api.get<Alert[]>('/alerts')
-      setItems(data)
+      const { data } = await api.get<AlertPage>('/alerts/feed')
+      setItems(data.items); setNext(data.nextCursor); setHead(data.headCursor)
     } finally { setLoading(false) }
   }
   useEffect(()=>{ load() }, [])
 
+  const loadMore = async ()=>{
+    if (!next) return
+    const { data } = await api.get<AlertPage>('/alerts/feed', { params: { cursor: next } })
+    setItems(prev => [...prev, ...data.items]); setNext(data.nextCursor)
+  }
+
   const markRead = async (id:number)=>{
     await api.post(`/alerts/${id}/read`)
-    await load()
+    setItems(prev => prev.map(a => a.id === id ? { ...a, read: true } : a))
+  }
+
+  const markAllRead = async ()=>{
+    if (!head) return
+    await api.post('/alerts/read', { upTo: head })
+    setItems(prev => prev.map(a => ({ ...a, read: true })))
   }
 
   const pill = (sev:string)=>({
@@ -28,7 +43,10 @@ export default function Alerts(){
 
   return (
     <div style={{ padding:24, maxWidth:900, margin:'0 auto' }}>
-      <h2 style={{ fontSize:22, marginBottom:12 }}>Alerts</h2>
+      <div style={{ display:'flex', justifyContent:'space-between', alignItems:'center', marginBottom:12 }}>
+        <h2 style={{ fontSize:22, margin:0 }}>Alerts</h2>
+        {items.some(a => !a.read) && <button onClick={markAllRead}>Mark all read</button>}
+      </div>
       {loading ? 'Loading…' : (
         <div style={{ display:'flex', flexDirection:'column', gap:12 }}>
           {items.map(a=>(
@@ -46,6 +64,7 @@ export default function Alerts(){
             </div>
           ))}
           {!items.length && <div>No alerts yet.</div>}
+          {next && <button onClick={loadMore}>Load more</button>}
         </div>
       )}
     </div>
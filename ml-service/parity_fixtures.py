@@ -0,0 +1,54 @@
+"""Record /anomaly/expense answers as fixtures for the backend's IsolationForestParityTest.
+
+    cd ml-service && python parity_fixtures.py
+
+Writes ../backend/src/test/resources/ml/anomaly_parity.json. Re-run after changing the scorer.
+"""
+import json
+import pathlib
+
+import numpy as np
+
+from main import AnomalyReq, anomaly
+
+OUT = pathlib.Path(__file__).parent / ".." / "backend" / "src" / "test" / "resources" / "ml" / "anomaly_parity.json"
+
+
+def cases():
+    rng = np.random.default_rng(7)
+    # spending histories the alert path sees: 12 months of one category, various shapes
+    shapes = {
+        "normal": lambda n: rng.normal(1000, 120, n),
+        "lognormal": lambda n: rng.lognormal(7, 0.4, n),
+        "bimodal": lambda n: np.concatenate([rng.normal(400, 30, n // 2), rng.normal(1500, 80, n - n // 2)]),
+        "trend": lambda n: np.linspace(500, 1500, n) + rng.normal(0, 40, n),
+        "heavy": lambda n: rng.pareto(3, n) * 300 + 200,
+    }
+    for name, draw in shapes.items():
+        for n in (8, 12, 30, 120, 400):
+            hist = np.round(draw(n), 2)
+            lo, hi = float(hist.min()), float(hist.max())
+            med = float(np.median(hist))
+            for label, x in (("median", med), ("min", lo), ("max", hi), ("2x-max", 2 * hi),
+                             ("5x-median", 5 * med), ("below-min", lo / 2)):
+                yield f"{name}-{n}-{label}", hist.tolist(), round(x, 2)
+    # the deterministic branches
+    yield "small-empty", [], 4999.0
+    yield "small-two", [100.0, 200.0], 271.0
+    yield "mad-odd", [100.0, 110.0, 120.0, 130.0, 140.0], 200.0
+    yield "mad-two-distinct", [100.0] * 4 + [200.0] * 4, 400.0
+    yield "ratio-flat", [100.0, 100.0, 100.0, 100.0, 500.0], 180.0
+
+
+def main():
+    out = []
+    for name, hist, x in cases():
+        r = anomaly(AnomalyReq(history=hist, candidate=x))
+        out.append({"name": name, "history": hist, "candidate": x, **r})
+    OUT.parent.mkdir(parents=True, exist_ok=True)
+    OUT.write_text(json.dumps(out, indent=1))
+    print(f"wrote {len(out)} cases to {OUT.resolve()}")
+
+
+if __name__ == "__main__":
+    main()